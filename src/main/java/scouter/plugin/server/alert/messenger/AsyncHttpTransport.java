@@ -0,0 +1,98 @@
+package scouter.plugin.server.alert.messenger;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import scouter.server.Configure;
+
+/**
+ * java.net.http.HttpClient 기반 비동기 전송
+ *
+ * 요청을 보낸 스레드는 응답을 기다리지 않으며, 응답은 적은 수의 I/O 스레드에서 콜백으로 처리된다.
+ * HTTP/2를 지원하는 서버(worksapis.com 등)는 하나의 연결에서 여러 요청을 동시에 보낸다.
+ * 제한 시간 안에 응답 본문까지 받지 못하면 요청(HTTP/2 stream)을 취소한다.
+ *
+ * ex)
+ *   ext_plugin_http_transport=async
+ *   ext_plugin_http_async_thread_count=2
+ */
+public final class AsyncHttpTransport implements HttpTransport {
+    private static volatile AsyncHttpTransport instance;
+
+    private final HttpClient client;
+    private final ExecutorService executor;
+    private final Duration requestTimeout;
+
+    private AsyncHttpTransport(Configure conf) {
+        final AtomicInteger seq = new AtomicInteger();
+        int threads = Math.max(1, conf.getInt("ext_plugin_http_async_thread_count", 2));
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "scouter-alert-http-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.requestTimeout = Duration.ofMillis(conf.getInt("ext_plugin_http_socket_timeout_ms", 5000));
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(conf.getInt("ext_plugin_http_connect_timeout_ms", 3000)))
+                .executor(executor)
+                .build();
+    }
+
+    public static AsyncHttpTransport getInstance() {
+        AsyncHttpTransport t = instance;
+        if (t == null) {
+            synchronized (AsyncHttpTransport.class) {
+                t = instance;
+                if (t == null) {
+                    t = instance = new AsyncHttpTransport(Configure.getInstance());
+                    final ExecutorService executor = t.executor;
+                    Runtime.getRuntime().addShutdownHook(
+                            new Thread(executor::shutdown, "scouter-alert-async-http-shutdown"));
+                }
+            }
+        }
+        return t;
+    }
+
+    @Override
+    public CompletableFuture<Response> post(String url, Map<String, String> headers, byte[] body, long timeoutMillis) {
+        HttpRequest.Builder builder;
+        try {
+            builder = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(requestTimeout.compareTo(Duration.ofMillis(timeoutMillis)) < 0
+                            ? requestTimeout : Duration.ofMillis(timeoutMillis))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+            for (Map.Entry<String, String> e : headers.entrySet()) {
+                builder.header(e.getKey(), e.getValue());
+            }
+        } catch (RuntimeException e) {
+            // 잘못된 URL 등
+            return CompletableFuture.failedFuture(e);
+        }
+
+        // 요청 timeout은 응답 헤더까지만 적용되므로 본문까지 포함한 제한 시간이 지나면 교환 자체를 취소한다.
+        CompletableFuture<HttpResponse<String>> exchange = client.sendAsync(builder.build(),
+                HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        return exchange
+                .thenApply(response -> new Response(response.statusCode(), response.body(),
+                        response.headers().firstValue("Retry-After").orElse(null)))
+                .orTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                .whenComplete((response, t) -> {
+                    if (t != null) {
+                        exchange.cancel(true);
+                    }
+                });
+    }
+}
@@ -0,0 +1,69 @@
+package scouter.plugin.server.alert.messenger;
+
+import java.io.IOException;
+import java.net.http.HttpTimeoutException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.Header;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.util.EntityUtils;
+
+/**
+ * 공유 HttpClient 커넥션 풀을 사용하는 동기 전송. 호출한 스레드에서 응답까지 대기한 뒤 완료된 결과를 반환한다.
+ * 제한 시간이 지나면 타이머 스레드가 요청을 abort 하여 대기 중인 호출을 끝낸다.
+ */
+public final class BlockingHttpTransport implements HttpTransport {
+    static final BlockingHttpTransport INSTANCE = new BlockingHttpTransport();
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "scouter-alert-http-timeout");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private BlockingHttpTransport() {
+    }
+
+    @Override
+    public CompletableFuture<Response> post(String url, Map<String, String> headers, byte[] body, long timeoutMillis) {
+        try {
+            HttpPost post = new HttpPost(url);
+            post.addHeader("Content-Type", "application/json");
+            for (Map.Entry<String, String> e : headers.entrySet()) {
+                post.addHeader(e.getKey(), e.getValue());
+            }
+            post.setEntity(new ByteArrayEntity(body));
+            return execute(post, timeoutMillis);
+        } catch (RuntimeException e) {
+            // 잘못된 URL 등
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<Response> execute(HttpPost post, long timeoutMillis) {
+        ScheduledFuture<?> timeout = TIMER.schedule(post::abort, timeoutMillis, TimeUnit.MILLISECONDS);
+        try (CloseableHttpResponse response = HttpClientManager.getClient().execute(post)) {
+            // 커넥션 재사용을 위해 응답 본문을 모두 소비
+            String responseBody = response.getEntity() != null ? EntityUtils.toString(response.getEntity(), "UTF-8")
+                    : null;
+            Header retryAfter = response.getFirstHeader("Retry-After");
+            return CompletableFuture.completedFuture(new Response(response.getStatusLine().getStatusCode(),
+                    responseBody, retryAfter != null ? retryAfter.getValue() : null));
+        } catch (IOException e) {
+            if (post.isAborted()) {
+                return CompletableFuture.failedFuture(
+                        new HttpTimeoutException("request timed out (" + timeoutMillis + " ms)"));
+            }
+            return CompletableFuture.failedFuture(e);
+        } finally {
+            timeout.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package scouter.plugin.server.alert.messenger;
+
+import java.io.IOException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+
+import scouter.server.Configure;
+import scouter.server.Logger;
+
+/**
+ * 메신저 전송용 공유 HTTP 클라이언트
+ *
+ * 프로세스 전체에서 하나의 커넥션 풀을 공유하여 Slack, Works 호출 시 TCP 연결과 TLS 핸드셰이크를 재사용한다.
+ *
+ * ex)
+ *   ext_plugin_http_max_total=20
+ *   ext_plugin_http_max_per_route=5
+ *   ext_plugin_http_connect_timeout_ms=3000
+ *   ext_plugin_http_socket_timeout_ms=5000
+ *   ext_plugin_http_request_timeout_ms=3000
+ *   ext_plugin_http_keep_alive_ms=60000
+ *   ext_plugin_http_idle_timeout_ms=30000
+ */
+public final class HttpClientManager {
+    public static final int SC_TOO_MANY_REQUESTS = 429;
+
+    private static volatile CloseableHttpClient client;
+
+    private HttpClientManager() {
+    }
+
+    public static CloseableHttpClient getClient() {
+        CloseableHttpClient c = client;
+        if (c == null) {
+            synchronized (HttpClientManager.class) {
+                c = client;
+                if (c == null) {
+                    c = client = create(Configure.getInstance());
+                    Runtime.getRuntime().addShutdownHook(
+                            new Thread(HttpClientManager::shutdown, "scouter-alert-http-shutdown"));
+                }
+            }
+        }
+        return c;
+    }
+
+    public static synchronized void shutdown() {
+        if (client == null) {
+            return;
+        }
+        try {
+            client.close();
+        } catch (IOException e) {
+            Logger.println("[Error] : " + e.getMessage());
+        }
+        client = null;
+    }
+
+    /**
+     * 429 응답의 Retry-After 헤더(초 또는 HTTP-date)를 ms로 변환한다. 헤더가 없으면 defaultMillis를 반환한다.
+     */
+    public static long getRetryAfterMillis(String retryAfter, long defaultMillis) {
+        if (retryAfter == null) {
+            return defaultMillis;
+        }
+        String value = retryAfter.trim();
+        try {
+            return Math.max(0L, Long.parseLong(value) * 1000L);
+        } catch (NumberFormatException e) {
+            Date date = DateUtils.parseDate(value);
+            return date != null ? Math.max(0L, date.getTime() - System.currentTimeMillis()) : defaultMillis;
+        }
+    }
+
+    private static CloseableHttpClient create(Configure conf) {
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(conf.getInt("ext_plugin_http_max_total", 20));
+        connectionManager.setDefaultMaxPerRoute(conf.getInt("ext_plugin_http_max_per_route", 5));
+        connectionManager.setValidateAfterInactivity(2000);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(conf.getInt("ext_plugin_http_connect_timeout_ms", 3000))
+                .setSocketTimeout(conf.getInt("ext_plugin_http_socket_timeout_ms", 5000))
+                .setConnectionRequestTimeout(conf.getInt("ext_plugin_http_request_timeout_ms", 3000))
+                .build();
+
+        final long keepAliveMillis = conf.getLong("ext_plugin_http_keep_alive_ms", 60000L);
+        ConnectionKeepAliveStrategy keepAliveStrategy = new DefaultConnectionKeepAliveStrategy() {
+            @Override
+            public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                // 서버가 Keep-Alive 헤더를 주지 않으면 설정값만큼 유지
+                long duration = super.getKeepAliveDuration(response, context);
+                return duration > 0 ? Math.min(duration, keepAliveMillis) : keepAliveMillis;
+            }
+        };
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .evictExpiredConnections()
+                .evictIdleConnections(conf.getLong("ext_plugin_http_idle_timeout_ms", 30000L), TimeUnit.MILLISECONDS)
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+package scouter.plugin.server.alert.messenger;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import scouter.server.Configure;
+
+/**
+ * 메신저 전송용 HTTP 전송 계층
+ *
+ * ext_plugin_http_transport 설정으로 구현을 선택한다.
+ *   blocking : 공유 HttpClient 커넥션 풀을 사용하며 호출한 스레드에서 응답까지 대기 (기본값)
+ *   async    : java.net.http.HttpClient(HTTP/2)를 사용하며 적은 수의 I/O 스레드로 여러 요청을 동시에 처리
+ *
+ * ex)
+ *   ext_plugin_http_transport=async
+ */
+public interface HttpTransport {
+
+    /**
+     * UTF-8로 인코딩된 JSON 본문을 POST 한다. 응답을 받으면 완료되며, 연결 실패나 타임아웃은 IOException으로 완료된다.
+     * timeoutMillis 안에 끝나지 않은 요청은 취소(abort)한 뒤 HttpTimeoutException으로 완료하므로,
+     * 반환된 Future가 완료되었으면 요청은 끝났거나 취소된 상태이다. (재전송해도 이전 요청과 겹치지 않음)
+     */
+    CompletableFuture<Response> post(String url, Map<String, String> headers, byte[] body, long timeoutMillis);
+
+    static HttpTransport getInstance() {
+        return "async".equalsIgnoreCase(Configure.getInstance().getValue("ext_plugin_http_transport", "blocking"))
+                ? AsyncHttpTransport.getInstance()
+                : BlockingHttpTransport.INSTANCE;
+    }
+
+    /**
+     * HTTP 응답. 본문을 모두 읽은 뒤 생성되므로 커넥션은 이미 반납된 상태이다.
+     */
+    class Response {
+        public final int statusCode;
+        public final String body;
+        private final String retryAfter;
+
+        public Response(int statusCode, String body, String retryAfter) {
+            this.statusCode = statusCode;
+            this.body = body;
+            this.retryAfter = retryAfter;
+        }
+
+        public long getRetryAfterMillis(long defaultMillis) {
+            return HttpClientManager.getRetryAfterMillis(retryAfter, defaultMillis);
+        }
+    }
+}
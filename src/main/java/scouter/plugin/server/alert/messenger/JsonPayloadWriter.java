@@ -0,0 +1,169 @@
+package scouter.plugin.server.alert.messenger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 메신저 전송용 JSON 본문 작성기
+ *
+ * 고정된 JSON 조각은 미리 UTF-8 바이트로 만들어 두고, 알림마다 바뀌는 문자열만 이스케이프하여 버퍼에 직접 기록한다.
+ * 문자열 이스케이프는 Gson 기본 설정(HTML 문자 이스케이프 포함)과 동일하므로 Gson으로 직렬화한 본문과 바이트 단위로 같다.
+ * 버퍼는 스레드별로 재사용하며, 완성된 본문은 {@link #toByteArray()}로 복사하여 사용한다.
+ */
+public final class JsonPayloadWriter {
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[][] REPLACEMENT = new byte[128][];
+    private static final int MAX_RETAINED = 64 * 1024;
+    private static final char LINE_SEPARATOR = 0x2028;
+    private static final char PARAGRAPH_SEPARATOR = 0x2029;
+
+    static {
+        for (int i = 0; i <= 0x1f; i++) {
+            REPLACEMENT[i] = unicodeEscape((char) i);
+        }
+        REPLACEMENT['"'] = ascii("\\\"");
+        REPLACEMENT['\\'] = ascii("\\\\");
+        REPLACEMENT['\t'] = ascii("\\t");
+        REPLACEMENT['\b'] = ascii("\\b");
+        REPLACEMENT['\n'] = ascii("\\n");
+        REPLACEMENT['\r'] = ascii("\\r");
+        REPLACEMENT['\f'] = ascii("\\f");
+        REPLACEMENT['<'] = unicodeEscape('<');
+        REPLACEMENT['>'] = unicodeEscape('>');
+        REPLACEMENT['&'] = unicodeEscape('&');
+        REPLACEMENT['='] = unicodeEscape('=');
+        REPLACEMENT['\''] = unicodeEscape('\'');
+    }
+
+    private static final byte[] LINE_SEPARATOR_ESCAPE = unicodeEscape(LINE_SEPARATOR);
+    private static final byte[] PARAGRAPH_SEPARATOR_ESCAPE = unicodeEscape(PARAGRAPH_SEPARATOR);
+
+    private static final ThreadLocal<JsonPayloadWriter> LOCAL = ThreadLocal.withInitial(JsonPayloadWriter::new);
+
+    private byte[] buf = new byte[1024];
+    private int count;
+
+    private JsonPayloadWriter() {
+    }
+
+    /**
+     * 현재 스레드의 비어 있는 작성기
+     */
+    public static JsonPayloadWriter get() {
+        JsonPayloadWriter writer = LOCAL.get();
+        if (writer.buf.length > MAX_RETAINED) {
+            // 큰 묶음 알림으로 늘어난 버퍼는 계속 붙잡아 두지 않는다.
+            writer.buf = new byte[1024];
+        }
+        writer.count = 0;
+        return writer;
+    }
+
+    /**
+     * 템플릿을 한 번 만들 때 사용하는 별도 작성기. 스레드별 작성기를 사용하는 중에도 안전하게 쓸 수 있다.
+     */
+    public static JsonPayloadWriter create() {
+        return new JsonPayloadWriter();
+    }
+
+    /**
+     * 미리 만들어 둔 JSON 조각을 그대로 기록한다.
+     */
+    public JsonPayloadWriter raw(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, count, bytes.length);
+        count += bytes.length;
+        return this;
+    }
+
+    /**
+     * 따옴표로 감싼 JSON 문자열을 기록한다.
+     */
+    public JsonPayloadWriter string(String value) {
+        return quote().escaped(value).quote();
+    }
+
+    public JsonPayloadWriter quote() {
+        ensure(1);
+        buf[count++] = '"';
+        return this;
+    }
+
+    /**
+     * 따옴표 없이 문자열 내용만 이스케이프하여 기록한다. 여러 조각을 하나의 JSON 문자열로 이어 쓸 때 사용한다.
+     * null은 String.valueOf와 같이 "null"로 기록한다.
+     */
+    public JsonPayloadWriter escaped(String value) {
+        if (value == null) {
+            value = "null";
+        }
+        int len = value.length();
+        ensure(len);
+        for (int i = 0; i < len; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                byte[] replacement = REPLACEMENT[c];
+                if (replacement == null) {
+                    ensure(1);
+                    buf[count++] = (byte) c;
+                } else {
+                    raw(replacement);
+                }
+            } else if (c == LINE_SEPARATOR || c == PARAGRAPH_SEPARATOR) {
+                raw(c == LINE_SEPARATOR ? LINE_SEPARATOR_ESCAPE : PARAGRAPH_SEPARATOR_ESCAPE);
+            } else if (c < 0x800) {
+                ensure(2);
+                buf[count++] = (byte) (0xC0 | (c >> 6));
+                buf[count++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, value.charAt(++i));
+                    ensure(4);
+                    buf[count++] = (byte) (0xF0 | (cp >> 18));
+                    buf[count++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    buf[count++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    buf[count++] = (byte) (0x80 | (cp & 0x3F));
+                } else {
+                    // 짝이 없는 surrogate는 String.getBytes(UTF-8)와 같이 '?'로 대체
+                    ensure(1);
+                    buf[count++] = '?';
+                }
+            } else {
+                ensure(3);
+                buf[count++] = (byte) (0xE0 | (c >> 12));
+                buf[count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                buf[count++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        return this;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buf, count);
+    }
+
+    /**
+     * 고정 JSON 조각을 UTF-8 바이트로 변환한다.
+     */
+    public static byte[] utf8(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void ensure(int extra) {
+        if (count + extra > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length << 1, count + extra));
+        }
+    }
+
+    private static byte[] unicodeEscape(char c) {
+        return new byte[] { '\\', 'u', HEX[(c >> 12) & 0xF], HEX[(c >> 8) & 0xF], HEX[(c >> 4) & 0xF], HEX[c & 0xF] };
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -10,14 +10,16 @@ import java.util.Base64;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
-import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpPost;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.util.EntityUtils;
 
@@ -26,24 +28,47 @@ import com.google.gson.annotations.SerializedName;
 
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import scouter.plugin.server.alert.messenger.HttpClientManager;
 import scouter.server.Configure;
 import scouter.server.Logger;
 
 /**
  * NaverWorks API 인증 처리 클래스
+ *
+ * 프로세스 전체에서 하나의 인스턴스만 사용한다. 개인키는 한 번만 파싱하고, 발급받은 토큰은 만료 직전까지 재사용한다.
+ * 만료 전에 백그라운드에서 미리 갱신하며, 동시에 갱신이 필요한 경우 하나의 요청으로 합친다.
  */
 public class WorksAuth {
     private static final String AUTH_API_URL = "https://auth.worksmobile.com/oauth2/v2.0/token";
     private static final long JWT_EXPIRATION = 3600; // 1시간
     private static final long TOKEN_REFRESH_THRESHOLD = 300; // 5분
+    private static final long BACKGROUND_REFRESH_LEAD = 600; // 10분
+    private static final long BACKGROUND_RETRY_DELAY = 30; // 30초
+
+    private static final WorksAuth instance = new WorksAuth(Configure.getInstance());
 
     private final Configure conf;
+    private final Object refreshLock = new Object();
+    private final ScheduledExecutorService scheduler;
+
+    private volatile String accessToken;
+    private volatile long tokenExpiration;
 
-    private String accessToken;
-    private long tokenExpiration;
+    private String privateKeyPath;
+    private PrivateKey privateKey;
+    private ScheduledFuture<?> backgroundRefresh;
 
-    public WorksAuth(Configure conf) {
+    private WorksAuth(Configure conf) {
         this.conf = conf;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "scouter-works-token-refresh");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public static WorksAuth getInstance() {
+        return instance;
     }
 
     /**
@@ -51,18 +76,54 @@ public class WorksAuth {
      * 토큰이 만료되었거나 만료가 임박한 경우 새로운 토큰을 발급받습니다.
      */
     public String getAccessToken() {
-        if (shouldRefreshToken()) {
+        String token = accessToken;
+        if (token != null && !isExpiring()) {
+            return token;
+        }
+        return refreshIfSame(token);
+    }
+
+    /**
+     * API 호출이 401로 거부된 경우 호출합니다.
+     * 거부된 토큰이 아직 현재 토큰이면 새로 발급받고, 다른 스레드가 이미 갱신했다면 그 토큰을 반환합니다.
+     */
+    public String refreshAfterUnauthorized(String rejectedToken) {
+        return refreshIfSame(rejectedToken);
+    }
+
+    private boolean isExpiring() {
+        return System.currentTimeMillis() >= (tokenExpiration - TOKEN_REFRESH_THRESHOLD * 1000);
+    }
+
+    private String refreshIfSame(String staleToken) {
+        synchronized (refreshLock) {
+            // 대기하는 동안 다른 스레드가 이미 갱신한 경우 그 결과를 사용
+            String token = accessToken;
+            if (token != null && token != staleToken && !isExpiring()) {
+                return token;
+            }
             refreshAccessToken();
+            return accessToken;
         }
-        return accessToken;
     }
 
-    private boolean shouldRefreshToken() {
-        return accessToken == null ||
-                System.currentTimeMillis() >= (tokenExpiration - TOKEN_REFRESH_THRESHOLD * 1000);
+    private void backgroundRefresh() {
+        synchronized (refreshLock) {
+            if (!refreshAccessToken()) {
+                scheduleBackgroundRefresh(BACKGROUND_RETRY_DELAY * 1000);
+            }
+        }
     }
 
-    private void refreshAccessToken() {
+    private void scheduleBackgroundRefresh(long delayMillis) {
+        if (backgroundRefresh != null) {
+            backgroundRefresh.cancel(false);
+        }
+        backgroundRefresh = scheduler.schedule(this::backgroundRefresh, Math.max(0, delayMillis),
+                TimeUnit.MILLISECONDS);
+    }
+
+    private boolean refreshAccessToken() {
         try {
             String clientId = conf.getValue("ext_plugin_works_client_id");
             String clientSecret = conf.getValue("ext_plugin_works_client_secret");
@@ -86,8 +147,7 @@ public class WorksAuth {
             post.addHeader("Content-Type", "application/x-www-form-urlencoded; charset=UTF-8");
             post.setEntity(new UrlEncodedFormEntity(params));
 
-            try (CloseableHttpClient client = HttpClientBuilder.create().build()) {
-                HttpResponse response = client.execute(post);
+            try (CloseableHttpResponse response = HttpClientManager.getClient().execute(post)) {
                 String responseBody = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
 
                 // println("Auth response: " + responseBody);
@@ -100,10 +160,16 @@ public class WorksAuth {
                     tokenResponse.accessToken = (String) responseMap.get("access_token");
                     tokenResponse.expiresIn = Long.valueOf(responseMap.get("expires_in").toString());
 
-                    this.accessToken = tokenResponse.accessToken;
                     this.tokenExpiration = System.currentTimeMillis() + (tokenResponse.expiresIn * 1000);
+                    this.accessToken = tokenResponse.accessToken;
+
+                    // 만료 전에 백그라운드에서 미리 갱신 (유효 시간이 짧은 토큰은 절반이 지났을 때, 최소 재시도 간격 이후)
+                    long refreshAfter = Math.max(tokenResponse.expiresIn / 2,
+                            tokenResponse.expiresIn - BACKGROUND_REFRESH_LEAD);
+                    scheduleBackgroundRefresh(Math.max(BACKGROUND_RETRY_DELAY, refreshAfter) * 1000);
 
                     println("Works access token refreshed successfully");
+                    return true;
                 } else {
                     Logger.println("Failed to refresh Works access token: " + responseBody);
                 }
@@ -111,15 +177,12 @@ public class WorksAuth {
         } catch (Exception e) {
             Logger.printStackTrace(e);
         }
+        return false;
     }
 
     private String createJWT(String clientId, String serviceAccount, String privateKeyPath) throws Exception {
-        // PEM 파일 읽기
-        String privateKeyStr = new String(java.nio.file.Files.readAllBytes(java.nio.file.Paths.get(privateKeyPath)),
-                StandardCharsets.UTF_8);
-
         try {
-            PrivateKey privateKey = parsePrivateKey(privateKeyStr);
+            PrivateKey privateKey = loadPrivateKey(privateKeyPath);
 
             Instant now = Instant.now();
             Instant expiration = now.plusSeconds(JWT_EXPIRATION);
@@ -143,6 +206,17 @@ public class WorksAuth {
         }
     }
 
+    private PrivateKey loadPrivateKey(String path) throws Exception {
+        // 경로가 바뀌지 않았다면 이전에 파싱한 키를 재사용
+        if (privateKey == null || !path.equals(privateKeyPath)) {
+            String privateKeyStr = new String(java.nio.file.Files.readAllBytes(java.nio.file.Paths.get(path)),
+                    StandardCharsets.UTF_8);
+            privateKey = parsePrivateKey(privateKeyStr);
+            privateKeyPath = path;
+        }
+        return privateKey;
+    }
+
     private PrivateKey parsePrivateKey(String privateKeyString) throws Exception {
         // PEM 형식의 개인키에서 헤더/푸터 제거 및 Base64 디코딩
         String privateKeyPEM = privateKeyString
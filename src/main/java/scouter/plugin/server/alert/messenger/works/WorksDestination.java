@@ -0,0 +1,33 @@
+package scouter.plugin.server.alert.messenger.works;
+
+import scouter.plugin.server.alert.slack.AlertDestination;
+
+/**
+ * Works 전송 대상 (Bot, 채널, 메시지 타입)
+ */
+public class WorksDestination implements AlertDestination {
+    private static final String API_URL = "https://www.worksapis.com/v1.0/bots/";
+
+    public final String botId;
+    public final String channelId;
+    public final String messageType;
+    public final String endpoint;
+    public final String key;
+
+    public WorksDestination(String botId, String channelId, String messageType) {
+        this.botId = botId;
+        this.channelId = channelId;
+        this.messageType = messageType;
+        this.endpoint = API_URL + botId + "/channels/" + channelId + "/messages";
+        this.key = "works|" + botId + "|" + channelId;
+    }
+
+    @Override
+    public String getKey() {
+        return key;
+    }
+
+    public boolean isFlex() {
+        return "flex".equalsIgnoreCase(messageType);
+    }
+}
@@ -0,0 +1,205 @@
+package scouter.plugin.server.alert.messenger.works;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.http.HttpStatus;
+
+import com.google.gson.Gson;
+
+import scouter.io.DataInputX;
+import scouter.io.DataOutputX;
+import scouter.plugin.server.alert.messenger.HttpClientManager;
+import scouter.plugin.server.alert.messenger.HttpTransport;
+import scouter.plugin.server.alert.messenger.JsonPayloadWriter;
+import scouter.plugin.server.alert.slack.AbstractAlertSink;
+import scouter.plugin.server.alert.slack.AlertDestination;
+import scouter.plugin.server.alert.slack.AlertDigest;
+import scouter.plugin.server.alert.slack.AlertMessage;
+import scouter.plugin.server.alert.slack.AlertOutbox;
+import scouter.plugin.server.alert.slack.MonitoringGroupConfigure;
+import scouter.plugin.server.alert.slack.SendResult;
+import scouter.server.Logger;
+
+/**
+ * Naver Works Bot 메시지 전송
+ */
+public class WorksSink extends AbstractAlertSink<WorksDestination> {
+    // WorksBotMessage를 Gson으로 직렬화한 결과와 같은 고정 JSON 조각 (필드 순서, null 생략 동일)
+    private static final byte[] TEXT_PREFIX = JsonPayloadWriter.utf8("{\"content\":{\"type\":\"text\",\"text\":");
+    private static final byte[] TEXT_SUFFIX = JsonPayloadWriter.utf8("}}");
+    private static final byte[] FLEX_PREFIX = JsonPayloadWriter.utf8(
+            "{\"content\":{\"type\":\"flex\",\"altText\":");
+    private static final byte[] FLEX_BODY_PREFIX = JsonPayloadWriter.utf8(
+            ",\"contents\":{\"type\":\"bubble\",\"header\":" + new Gson().toJson(header())
+                    + ",\"body\":{\"type\":\"box\",\"layout\":\"vertical\",\"spacing\":\"sm\",\"contents\":[");
+    private static final byte[] FLEX_SUFFIX = JsonPayloadWriter.utf8(
+            "]},\"footer\":" + new Gson().toJson(footer()) + "}}}");
+    private static final byte[] BODY_TEXT_PREFIX = JsonPayloadWriter.utf8("{\"type\":\"text\",\"text\":");
+    private static final byte[] BODY_TEXT_SUFFIX = JsonPayloadWriter.utf8(",\"size\":\"sm\",\"wrap\":true}");
+    private static final byte[] COMMA = JsonPayloadWriter.utf8(",");
+    private static final byte[] EMPTY = new byte[0];
+    private static final byte[] ALERT_LABEL = JsonPayloadWriter.utf8("[ALERT] ");
+    private static final byte[] ALERTS_LABEL = JsonPayloadWriter.utf8(" alerts");
+    private static final byte[] DIGEST_LABEL = JsonPayloadWriter.utf8("[DIGEST] ");
+    private static final byte[] TYPE_LABEL = JsonPayloadWriter.utf8("[TYPE] : ");
+    private static final byte[] NAME_LABEL = JsonPayloadWriter.utf8("[NAME] : ");
+    private static final byte[] LEVEL_LABEL = JsonPayloadWriter.utf8("[LEVEL] : ");
+    private static final byte[] TITLE_LABEL = JsonPayloadWriter.utf8("[TITLE] : ");
+    private static final byte[] MESSAGE_LABEL = JsonPayloadWriter.utf8("[MESSAGE] : ");
+
+    public WorksSink(MonitoringGroupConfigure groupConf, AlertDigest digest, AlertOutbox outbox) {
+        super("works", groupConf, digest, outbox);
+    }
+
+    @Override
+    public WorksDestination resolve(String objType, String objectName, String hostName) {
+        // 설정 스냅샷이 교체될 때까지 호스트, 객체 이름별로 한 번만 해석
+        return groupConf.getGroupConfig(objType).resolve("works|" + hostName + "|" + objectName, k -> {
+            String botId = groupConf.getValue("ext_plugin_works_bot_id", objType);
+            String defaultChannelId = groupConf.getValue("ext_plugin_works_channel_id", objType);
+            String hostChannelId = groupConf.getValueByName("ext_plugin_works_channel_id", objType, hostName,
+                    defaultChannelId);
+            String channelId = groupConf.getValueByName("ext_plugin_works_channel_id", objType, objectName,
+                    hostChannelId);
+            println("channelId : " + channelId + ", hostChannelId : " + hostChannelId
+                    + ", defaultChannelId : " + defaultChannelId);
+
+            if (botId == null || channelId == null) {
+                return null;
+            }
+            return new WorksDestination(botId, channelId,
+                    groupConf.getValue("ext_plugin_works_message_type", objType, "text"));
+        });
+    }
+
+    @Override
+    protected CompletableFuture<SendResult> send(WorksDestination destination, List<AlertMessage> messages) {
+        // Works 토큰 가져오기 (프로세스 전체에서 캐시된 토큰 사용)
+        String accessToken = WorksAuth.getInstance().getAccessToken();
+
+        // 메시지 생성
+        byte[] payload = destination.isFlex() ? renderFlex(messages) : renderText(messages);
+
+        // 디버그 로깅
+        if (isDebug()) {
+            println("Works Bot Payload: " + new String(payload, StandardCharsets.UTF_8));
+        }
+
+        return postWorks(destination, payload, accessToken, false);
+    }
+
+    /**
+     * Text 메시지 - {"content":{"type":"text","text":"..."}}
+     */
+    static byte[] renderText(List<AlertMessage> messages) {
+        JsonPayloadWriter writer = JsonPayloadWriter.get().raw(TEXT_PREFIX).quote();
+        AlertMessage.writeDigestText(messages, writer);
+        return writer.quote().raw(TEXT_SUFFIX).toByteArray();
+    }
+
+    /**
+     * Flex 메시지 - 고정된 헤더, 푸터는 미리 직렬화한 조각을 사용하고 바디의 텍스트만 기록한다.
+     */
+    static byte[] renderFlex(List<AlertMessage> messages) {
+        JsonPayloadWriter writer = JsonPayloadWriter.get().raw(FLEX_PREFIX).quote().raw(ALERT_LABEL);
+        if (messages.size() == 1) {
+            AlertMessage m = messages.get(0);
+            writer.escaped(m.title).quote().raw(FLEX_BODY_PREFIX);
+            bodyText(writer, TYPE_LABEL, m.objType.toUpperCase()).raw(COMMA);
+            bodyText(writer, NAME_LABEL, m.name).raw(COMMA);
+            bodyText(writer, LEVEL_LABEL, m.getLevelName()).raw(COMMA);
+            bodyText(writer, TITLE_LABEL, m.title).raw(COMMA);
+            bodyText(writer, MESSAGE_LABEL, m.message);
+        } else {
+            // 묶음 알림은 레벨/제목별 섹션으로 표시
+            String count = Integer.toString(messages.size());
+            writer.escaped(count).raw(ALERTS_LABEL).quote().raw(FLEX_BODY_PREFIX);
+            bodyText(writer, DIGEST_LABEL, count + " alerts");
+            for (String section : AlertMessage.toSections(messages)) {
+                bodyText(writer.raw(COMMA), EMPTY, section);
+            }
+        }
+        return writer.raw(FLEX_SUFFIX).toByteArray();
+    }
+
+    private static JsonPayloadWriter bodyText(JsonPayloadWriter writer, byte[] label, String text) {
+        return writer.raw(BODY_TEXT_PREFIX).quote().raw(label).escaped(text).quote().raw(BODY_TEXT_SUFFIX);
+    }
+
+    private CompletableFuture<SendResult> postWorks(WorksDestination destination, byte[] payload,
+            String accessToken, boolean refreshed) {
+        return HttpTransport.getInstance()
+                .post(destination.endpoint, Collections.singletonMap("Authorization", "Bearer " + accessToken), payload,
+                        getTimeoutMillis())
+                .thenCompose(response -> {
+                    int statusCode = response.statusCode;
+                    if (statusCode == HttpStatus.SC_OK || statusCode == HttpStatus.SC_CREATED) {
+                        println("Works Bot message sent successfully.");
+                        return CompletableFuture.completedFuture(SendResult.SUCCESS);
+                    } else if (statusCode == HttpClientManager.SC_TOO_MANY_REQUESTS) {
+                        long retryAfter = response.getRetryAfterMillis(1000L);
+                        println("Works Bot rate limited. retry after " + retryAfter + " ms");
+                        return CompletableFuture.completedFuture(SendResult.throttled(retryAfter));
+                    } else if (statusCode == HttpStatus.SC_UNAUTHORIZED && !refreshed) {
+                        // 토큰이 서버에서 만료된 경우 한 번만 갱신 후 재시도 (갱신은 드물어 콜백 스레드에서 수행)
+                        String token = WorksAuth.getInstance().refreshAfterUnauthorized(accessToken);
+                        return postWorks(destination, payload, token, true);
+                    } else {
+                        Logger.println("Works Bot message sending failed. Response: " + response.body);
+                        return CompletableFuture.completedFuture(SendResult.failedWith(statusCode));
+                    }
+                });
+    }
+
+    private static WorksBotMessage.Box header() {
+        WorksBotMessage.Box header = new WorksBotMessage.Box();
+        header.type = "box";
+        header.layout = "vertical";
+        header.backgroundColor = "#D32F2F";
+
+        WorksBotMessage.BoxContent headerText = new WorksBotMessage.BoxContent();
+        headerText.type = "text";
+        headerText.text = "모니터링 알람(Alert)";
+        headerText.weight = "bold";
+        headerText.color = "#FFFFFF";
+        headerText.size = "md";
+
+        header.contents = new WorksBotMessage.BoxContent[] { headerText };
+        return header;
+    }
+
+    private static WorksBotMessage.Box footer() {
+        WorksBotMessage.Box footer = new WorksBotMessage.Box();
+        footer.type = "box";
+        footer.layout = "vertical";
+        footer.backgroundColor = "#0070C0";
+
+        WorksBotMessage.BoxContent footerText = new WorksBotMessage.BoxContent();
+        footerText.type = "text";
+        footerText.text = "확인 바랍니다.";
+        footerText.align = "center";
+        footerText.color = "#FFFFFF";
+        footerText.size = "sm";
+
+        footer.contents = new WorksBotMessage.BoxContent[] { footerText };
+        return footer;
+    }
+
+    @Override
+    public void writeDestination(AlertDestination destination, DataOutputX out) throws IOException {
+        WorksDestination works = (WorksDestination) destination;
+        AlertOutbox.writeNullable(out, works.botId);
+        AlertOutbox.writeNullable(out, works.channelId);
+        AlertOutbox.writeNullable(out, works.messageType);
+    }
+
+    @Override
+    public WorksDestination readDestination(DataInputX in) throws IOException {
+        return new WorksDestination(AlertOutbox.readNullable(in), AlertOutbox.readNullable(in),
+                AlertOutbox.readNullable(in));
+    }
+}
@@ -4,7 +4,6 @@ import scouter.lang.pack.AlertPack;
 import scouter.server.Configure;
 import scouter.server.Logger;
 import scouter.util.FormatUtil;
-import scouter.util.LinkedMap;
 
 /**
  * 알림 처리 추상 클래스
@@ -13,57 +12,81 @@ import scouter.util.LinkedMap;
  */
 public abstract class AbstractAlertHandler {
     protected final Configure conf = Configure.getInstance();
-    protected final LinkedMap<String, AlertHistory> alertHistoryLinkedMap;
+    protected final AlertHistoryStore historyStore;
 
-    protected AbstractAlertHandler(LinkedMap<String, AlertHistory> alertHistoryLinkedMap) {
-        this.alertHistoryLinkedMap = alertHistoryLinkedMap;
+    protected AbstractAlertHandler(AlertHistoryStore historyStore) {
+        this.historyStore = historyStore;
     }
 
-    public AlertPack handleAlert(AlertContext context) {
-        // 알림 패턴이 존재하지 않으면 초기 상태 로깅
-        if (!alertHistoryLinkedMap.containsKey(context.alertPattern)) {
-            alertHistoryLinkedMap.put(context.alertPattern, createHistory(System.currentTimeMillis()));
+    public AlertPack handleAlert(final AlertContext context) {
+        long intervalMillis = context.interval * 60 * 1000L;
+
+        // 구간 확인, 횟수 증가, 초기화는 패턴별로 원자적으로 처리된다.
+        AlertHistoryStore.Transition t = historyStore.advance(context.kind, context.historyKey,
+                System.currentTimeMillis(), intervalMillis,
+                (historyCount, diff) -> shouldAlert(context, historyCount, diff),
+                context.metric, context.threshold, context.endTime);
+
+        switch (t.state) {
+        case AlertHistoryStore.FIRST:
+            // 알림 패턴이 존재하지 않으면 초기 상태 로깅
             logInitialStatus(context);
 
             // 에러인 경우 첫 발생 시에는 즉시 알림
-            if (context.isErrorPattern()) {
+            if (alertOnFirst(context)) {
                 byte alertLevel = determineAlertLevel(context, 1, 0);
                 String message = formatAlertMessage(context, 1);
                 logStatus(context, 1, 0, "First Error alert");
                 return createAlertPack(context, alertLevel, message, 1);
             }
             return null;
-        }
-
-        preProcessAlert(context);
-
-        AlertHistory history = alertHistoryLinkedMap.get(context.alertPattern);
-        long diff = System.currentTimeMillis() - history.getLastModified();
-        long intervalMillis = context.interval * 60 * 1000L;
-
-        if (diff < intervalMillis) {
-            int historyCount = history.addCount();
-            alertHistoryLinkedMap.put(context.alertPattern, history);
-            logStatus(context, historyCount, diff, "Not yet");
+        case AlertHistoryStore.NOT_YET:
+            preProcessAlert(context);
+            logStatus(context, t.historyCount, t.diff, "Not yet");
             return null;
-        } else if (diff < intervalMillis * 2) {
-            int historyCount = history.getHistoryCount();
-            byte alertLevel = determineAlertLevel(context, historyCount, diff);
-
-            if (shouldSkipAlert(alertLevel, context)) {
-                return null;
-            }
+        case AlertHistoryStore.ALERT:
+            preProcessAlert(context);
+            byte alertLevel = determineAlertLevel(context, t.historyCount, t.diff);
+            String message = formatAlertMessage(context, t.historyCount);
+            logStatus(context, t.historyCount, t.diff, "Ok alert !!!");
+            return createAlertPack(context, alertLevel, message, t.historyCount);
+        case AlertHistoryStore.RESET:
+            preProcessAlert(context);
+            logStatus(context, 0, t.diff, "Put(reset) !!!");
+            return null;
+        default:
+            // SKIP
+            return null;
+        }
+    }
 
-            String message = formatAlertMessage(context, historyCount);
-            alertHistoryLinkedMap.put(context.alertPattern, createHistory(System.currentTimeMillis()));
-            logStatus(context, historyCount, diff, "Ok alert !!!");
+    /**
+     * 구간이 끝났을 때 누적 횟수를 알림으로 보낼지 여부
+     */
+    private boolean shouldAlert(AlertContext context, int historyCount, long diff) {
+        return !shouldSkipAlert(determineAlertLevel(context, historyCount, diff), context);
+    }
 
-            return createAlertPack(context, alertLevel, message, historyCount);
-        } else {
-            alertHistoryLinkedMap.put(context.alertPattern, createHistory(System.currentTimeMillis()));
-            logStatus(context, 0, diff, "Put(reset) !!!");
+    /**
+     * 다음 이벤트 없이 구간이 끝났을 때(타이머) 누적 횟수를 알림으로 만든다. 알림 대상이 아니면 null을 반환한다.
+     * context는 구간의 마지막 이벤트로 다시 만든 것이다.
+     */
+    public AlertPack flush(AlertContext context, int historyCount, long diff) {
+        byte alertLevel = determineAlertLevel(context, historyCount, diff);
+        if (shouldSkipAlert(alertLevel, context)) {
+            logStatus(context, historyCount, diff, "Flush skip");
             return null;
         }
+        String message = formatAlertMessage(context, historyCount);
+        logStatus(context, historyCount, diff, "Flush alert !!!");
+        return createAlertPack(context, alertLevel, message, historyCount);
+    }
+
+    /**
+     * 처음 발생했을 때 바로 알림을 보낼지 여부. 기본은 에러 패턴만 해당
+     */
+    protected boolean alertOnFirst(AlertContext context) {
+        return context.isErrorPattern();
     }
 
     protected void preProcessAlert(AlertContext context) {
@@ -96,8 +119,6 @@ public abstract class AbstractAlertHandler {
         }
     }
 
-    protected abstract AlertHistory createHistory(long timestamp);
-
     protected abstract byte determineAlertLevel(AlertContext context, int historyCount, long diff);
 
     protected abstract String formatAlertMessage(AlertContext context, int historyCount);
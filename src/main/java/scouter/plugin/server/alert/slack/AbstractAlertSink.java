@@ -0,0 +1,162 @@
+package scouter.plugin.server.alert.slack;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import scouter.server.Configure;
+import scouter.server.Logger;
+
+/**
+ * 알림 전송 채널의 공통 처리
+ *
+ * 목적지별 묶음(digest), 전용 디스패처를 통한 전송, 전송 타임아웃, Outbox ack를 처리하며
+ * 하위 클래스는 목적지 해석과 실제 전송만 구현한다.
+ * 전송 타임아웃({@link #getTimeoutMillis()})은 HTTP 전송 계층에 넘겨 요청 자체를 취소하므로
+ * 재전송은 이전 요청이 끝나거나 취소된 뒤에만 일어난다.
+ *
+ * ex)
+ *   ext_plugin_slack_timeout_ms=10000
+ *   ext_plugin_works_timeout_ms=10000
+ */
+public abstract class AbstractAlertSink<D extends AlertDestination> implements AlertSink {
+    protected final Configure conf = Configure.getInstance();
+    protected final MonitoringGroupConfigure groupConf;
+
+    private final String name;
+    private final AlertDispatcher dispatcher;
+    private final AlertDigest digest;
+    private final AlertOutbox outbox;
+    private final long timeoutMillis;
+
+    protected AbstractAlertSink(String name, MonitoringGroupConfigure groupConf, AlertDigest digest,
+            AlertOutbox outbox) {
+        this.name = name;
+        this.groupConf = groupConf;
+        this.digest = digest;
+        this.outbox = outbox;
+        this.dispatcher = AlertDispatcher.create(conf, name);
+        this.timeoutMillis = conf.getLong("ext_plugin_" + name + "_timeout_ms", 10000L);
+    }
+
+    /**
+     * 목적지로 알림을 전송한다. 동기 전송이면 완료된 Future를 반환한다.
+     * HTTP 요청에는 {@link #getTimeoutMillis()}를 제한 시간으로 넘겨야 한다.
+     */
+    protected abstract CompletableFuture<SendResult> send(D destination, List<AlertMessage> messages);
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void enqueue(AlertDestination destination, AlertMessage message) {
+        final D target = (D) destination;
+        final String key = target.getKey();
+
+        // Outbox가 설정된 경우 디스크에 먼저 기록 (재전송되는 알림은 이미 기록되어 있음)
+        if (outbox != null && message.outboxId == 0) {
+            message = outbox.append(message, this, target);
+        }
+        digest.add(key, message, messages -> dispatcher.dispatch(key, target.getRateKey(),
+                AlertMessage.maxLevel(messages), new Delivery(target, messages)));
+    }
+
+    @Override
+    public void shutdown() {
+        dispatcher.shutdown();
+    }
+
+    public AlertDispatcher getDispatcher() {
+        return dispatcher;
+    }
+
+    /**
+     * 요청 한 건의 제한 시간 (ext_plugin_{name}_timeout_ms)
+     */
+    protected long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * 한 묶음의 전송 작업
+     *
+     * 전송이 끝났거나(성공 또는 재시도 불가 실패) overflow 정책으로 버려진 알림은 Outbox에서 제거한다.
+     * 재시도 중이거나 재시도가 모두 실패한 알림은 남겨두어 재시작 시 다시 전송한다.
+     * 전송 중에 버려진 뒤 응답이 오는 경우가 있으므로 ack는 한 번만 한다.
+     */
+    private class Delivery implements AlertDispatcher.Task {
+        private final D destination;
+        private final List<AlertMessage> messages;
+        private final AtomicBoolean acked = new AtomicBoolean();
+
+        Delivery(D destination, List<AlertMessage> messages) {
+            this.destination = destination;
+            this.messages = messages;
+        }
+
+        @Override
+        public CompletableFuture<SendResult> send() {
+            CompletableFuture<SendResult> future;
+            try {
+                future = AbstractAlertSink.this.send(destination, messages);
+            } catch (Exception e) {
+                future = CompletableFuture.completedFuture(failed(e));
+            }
+            return future.exceptionally(AbstractAlertSink.this::failed)
+                    .thenApply(this::acknowledge);
+        }
+
+        @Override
+        public void dropped() {
+            ack();
+        }
+
+        private SendResult acknowledge(SendResult result) {
+            if (result.status == SendResult.Status.SUCCESS || result.status == SendResult.Status.FAILED) {
+                ack();
+            }
+            return result;
+        }
+
+        private void ack() {
+            if (outbox == null || !acked.compareAndSet(false, true)) {
+                return;
+            }
+            for (AlertMessage m : messages) {
+                if (m.outboxId != 0) {
+                    outbox.ack(m.outboxId);
+                }
+            }
+        }
+    }
+
+    /**
+     * 전송 중 발생한 예외를 결과로 변환한다. 타임아웃, 연결 실패 등 IOException은 재전송 대상이다.
+     */
+    protected SendResult failed(Throwable t) {
+        Throwable cause = t instanceof CompletionException && t.getCause() != null ? t.getCause() : t;
+        Logger.println("[Error] : [" + name + "] " + cause.getMessage());
+        if (conf._trace) {
+            cause.printStackTrace();
+        }
+        return cause instanceof IOException || cause instanceof TimeoutException ? SendResult.RETRY
+                : SendResult.FAILED;
+    }
+
+    protected boolean isDebug() {
+        return conf.getBoolean("ext_plugin_slack_debug", false);
+    }
+
+    protected void println(Object o) {
+        if (isDebug()) {
+            System.out.println(o);
+            Logger.println(o);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package scouter.plugin.server.alert.slack;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import scouter.lang.ObjectType;
+import scouter.lang.counters.CounterConstants;
+import scouter.lang.pack.ObjectPack;
+import scouter.server.CounterManager;
+import scouter.server.core.AgentManager;
+import scouter.util.HashUtil;
+
+/**
+ * objName별 에이전트 정보(objHash, objType, 카운터 family) 캐시
+ *
+ * 카운터는 objName으로만 들어오므로 매번 hash 계산, AgentManager 조회, 카운터 엔진의 family 조회를 하지 않도록 한 번 해석한 값을 보관한다.
+ * 객체 정보가 바뀌거나(objType 변경) 비활성화되면 object()에서 {@link #invalidate(ObjectPack)}로 제거한다.
+ * 임계값은 설정 변경을 따라가도록 MonitoringGroupConfigure에서 objHash로 조회한다.
+ */
+public class AgentInfoCache {
+    private final ConcurrentHashMap<String, AgentInfo> agents = new ConcurrentHashMap<String, AgentInfo>();
+
+    /**
+     * 에이전트 정보. AgentManager에 아직 등록되지 않은 객체는 null (캐시하지 않음)
+     */
+    public AgentInfo get(String objName) {
+        if (objName == null) {
+            return null;
+        }
+        AgentInfo info = agents.get(objName);
+        if (info != null) {
+            return info;
+        }
+
+        int objHash = HashUtil.hash(objName);
+        ObjectPack objectPack = AgentManager.getAgent(objHash);
+        if (objectPack == null || objectPack.objType == null) {
+            return null;
+        }
+        info = new AgentInfo(objHash, objectPack.objType, getFamily(objectPack.objType));
+        AgentInfo prev = agents.putIfAbsent(objName, info);
+        return prev != null ? prev : info;
+    }
+
+    /**
+     * 객체 상태가 바뀌었으면 캐시에서 제거한다. 제거했으면 true
+     */
+    public boolean invalidate(ObjectPack pack) {
+        if (pack == null || pack.objName == null) {
+            return false;
+        }
+        AgentInfo info = agents.get(pack.objName);
+        if (info == null) {
+            return false;
+        }
+        if (!pack.alive || (pack.objType != null && !pack.objType.equals(info.objType))) {
+            return agents.remove(pack.objName, info);
+        }
+        return false;
+    }
+
+    public int size() {
+        return agents.size();
+    }
+
+    static String getFamily(String objType) {
+        try {
+            ObjectType type = CounterManager.getInstance().getCounterEngine().getObjectType(objType);
+            return type != null && type.getFamily() != null ? type.getFamily().getName() : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    public static final class AgentInfo {
+        public final int objHash;
+        public final String objType;
+        public final String family;
+        public final boolean javaee;
+
+        AgentInfo(int objHash, String objType, String family) {
+            this.objHash = objHash;
+            this.objType = objType;
+            this.family = family;
+            this.javaee = CounterConstants.FAMILY_JAVAEE.equals(family);
+        }
+    }
+}
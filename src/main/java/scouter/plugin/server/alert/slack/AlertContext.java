@@ -1,11 +1,13 @@
 package scouter.plugin.server.alert.slack;
 
 public class AlertContext {
-    public final String alertPattern;
+    public final byte kind;
+    public final long historyKey;
     public final String objName;
     public final String objType;
     public final int interval;
     public final String metricValue;
+    public final double metric;
     public final int threshold;
     public final int objHash;
     public final String serviceName;
@@ -13,14 +15,19 @@ public class AlertContext {
     public final int service;
     public final long endTime;
     public final String metricUnit;
+    public final int percentile;
+    public final String condition;
+    public final byte level;
     public final String metricFormatted;
 
     private AlertContext(Builder builder) {
-        this.alertPattern = builder.alertPattern;
+        this.kind = builder.kind;
+        this.historyKey = AlertHistoryStore.key(builder.objHash, builder.patternId);
         this.objName = builder.objName;
         this.objType = builder.objType;
         this.interval = builder.interval;
         this.metricValue = builder.metricValue;
+        this.metric = builder.metricValue == null ? 0 : Double.parseDouble(builder.metricValue);
         this.threshold = builder.threshold;
         this.objHash = builder.objHash;
         this.serviceName = builder.serviceName;
@@ -28,17 +35,32 @@ public class AlertContext {
         this.service = builder.service;
         this.endTime = builder.endTime;
         this.metricUnit = builder.metricUnit;
-        this.metricFormatted = builder.metricValue != null
-                ? scouter.util.FormatUtil.print(Long.parseLong(builder.metricValue), "#,##0")
-                : null;
+        this.percentile = builder.percentile;
+        this.condition = builder.condition;
+        this.level = builder.level;
+        this.metricFormatted = format(builder.metricValue, metric);
+    }
+
+    /**
+     * 정수는 "#,##0", 소수(카운터 값 등)는 "#,##0.##" 형식
+     */
+    private static String format(String metricValue, double metric) {
+        if (metricValue == null) {
+            return null;
+        }
+        if (metricValue.indexOf('.') >= 0) {
+            return scouter.util.FormatUtil.print(metric, "#,##0.##");
+        }
+        return scouter.util.FormatUtil.print((long) metric, "#,##0");
     }
 
     public boolean isErrorPattern() {
-        return alertPattern != null && alertPattern.endsWith("_error");
+        return kind == AlertKind.ERROR;
     }
 
     public static class Builder {
-        private String alertPattern;
+        private byte kind;
+        private int patternId;
         private String objName;
         private String objType;
         private int interval;
@@ -50,9 +72,16 @@ public class AlertContext {
         private int service;
         private long endTime;
         private String metricUnit;
-
-        public Builder alertPattern(String alertPattern) {
-            this.alertPattern = alertPattern;
+        private int percentile;
+        private String condition;
+        private byte level;
+
+        /**
+         * 알림 이력 구분 - 종류(AlertKind)와 서비스/카운터 id. objHash와 함께 이력 키가 된다.
+         */
+        public Builder pattern(byte kind, int patternId) {
+            this.kind = kind;
+            this.patternId = patternId;
             return this;
         }
 
@@ -111,6 +140,27 @@ public class AlertContext {
             return this;
         }
 
+        public Builder percentile(int percentile) {
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * 카운터 규칙 조건 (ex. "heap : HeapUsed > 1,024")
+         */
+        public Builder condition(String condition) {
+            this.condition = condition;
+            return this;
+        }
+
+        /**
+         * 규칙에 지정된 알림 레벨
+         */
+        public Builder level(byte level) {
+            this.level = level;
+            return this;
+        }
+
         public AlertContext build() {
             return new AlertContext(this);
         }
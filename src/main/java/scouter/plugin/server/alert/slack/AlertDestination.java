@@ -0,0 +1,15 @@
+package scouter.plugin.server.alert.slack;
+
+/**
+ * 알림 전송 대상. 같은 key의 알림은 하나의 큐에서 순서대로 전송된다.
+ */
+public interface AlertDestination {
+    String getKey();
+
+    /**
+     * 전송량 제한 단위. 같은 값을 가진 목적지는 토큰 버킷과 429 대기를 함께 사용한다.
+     */
+    default String getRateKey() {
+        return getKey();
+    }
+}
@@ -0,0 +1,106 @@
+package scouter.plugin.server.alert.slack;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import scouter.lang.AlertLevel;
+import scouter.server.Configure;
+
+/**
+ * 목적지별 알림 묶음(digest) 처리
+ *
+ * 같은 목적지로 가는 알림을 일정 시간(window) 또는 최대 건수/크기까지 모아 한 번에 전송한다.
+ * 설정된 레벨 이상의 알림은 모으지 않고 즉시 전송한다.
+ *
+ * ex)
+ *   ext_plugin_digest_enabled=true
+ *   ext_plugin_digest_window_ms=10000
+ *   ext_plugin_digest_max_count=50
+ *   ext_plugin_digest_max_bytes=30000
+ *   ext_plugin_digest_immediate_level=3
+ */
+public class AlertDigest {
+
+    private final Configure conf = Configure.getInstance();
+    private final ConcurrentHashMap<String, Batch> batches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer;
+
+    public AlertDigest() {
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "scouter-alert-digest");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 목적지(destination) 묶음에 알림을 추가한다. 묶음이 완성되면 flusher로 전달된다.
+     */
+    public void add(String destination, AlertMessage message, Consumer<List<AlertMessage>> flusher) {
+        if (!conf.getBoolean("ext_plugin_digest_enabled", false)
+                || message.level >= conf.getInt("ext_plugin_digest_immediate_level", AlertLevel.FATAL)) {
+            flusher.accept(Collections.singletonList(message));
+            return;
+        }
+
+        Batch batch = batches.computeIfAbsent(destination, k -> new Batch());
+        List<AlertMessage> ready = null;
+        Consumer<List<AlertMessage>> readyFlusher = null;
+        synchronized (batch) {
+            if (batch.messages.isEmpty()) {
+                final long generation = batch.generation;
+                long window = conf.getLong("ext_plugin_digest_window_ms", 10000L);
+                timer.schedule(() -> flushOnTimer(batch, generation), window, TimeUnit.MILLISECONDS);
+            }
+            batch.flusher = flusher;
+            batch.messages.add(message);
+            batch.bytes += message.estimateBytes();
+
+            if (batch.messages.size() >= conf.getInt("ext_plugin_digest_max_count", 50)
+                    || batch.bytes >= conf.getInt("ext_plugin_digest_max_bytes", 30000)) {
+                readyFlusher = batch.flusher;
+                ready = batch.drain();
+            }
+        }
+
+        if (ready != null) {
+            readyFlusher.accept(ready);
+        }
+    }
+
+    private void flushOnTimer(Batch batch, long generation) {
+        List<AlertMessage> ready = null;
+        Consumer<List<AlertMessage>> readyFlusher = null;
+        synchronized (batch) {
+            // 건수/크기 제한으로 이미 전송된 묶음이면 무시
+            if (batch.generation == generation && !batch.messages.isEmpty()) {
+                readyFlusher = batch.flusher;
+                ready = batch.drain();
+            }
+        }
+        if (ready != null) {
+            readyFlusher.accept(ready);
+        }
+    }
+
+    private static class Batch {
+        List<AlertMessage> messages = new ArrayList<>();
+        Consumer<List<AlertMessage>> flusher;
+        int bytes;
+        long generation;
+
+        List<AlertMessage> drain() {
+            List<AlertMessage> drained = messages;
+            messages = new ArrayList<>();
+            bytes = 0;
+            generation++;
+            return drained;
+        }
+    }
+}
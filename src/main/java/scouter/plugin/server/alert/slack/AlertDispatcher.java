@@ -0,0 +1,541 @@
+package scouter.plugin.server.alert.slack;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import scouter.server.Configure;
+import scouter.server.Logger;
+
+/**
+ * 알림 전송 디스패처
+ *
+ * 목적지(destination)별로 크기가 제한된 큐를 두고, 고정 크기의 워커 스레드가 큐를 비운다.
+ * 같은 목적지의 알림은 순서대로, 서로 다른 목적지의 알림은 병렬로 전송된다.
+ * 전송량 제한에 걸린 목적지는 워커를 점유하지 않고 대기 시간 후 다시 스케줄된다.
+ * 일시적인 실패는 지수 백오프(jitter 포함)로 재전송하며, 목적지별 Circuit Breaker가 OPEN인 동안
+ * 해당 목적지의 알림은 큐에 보관(park)된 채로 워커를 점유하지 않는다.
+ * 비동기 전송(Task가 완료되지 않은 Future를 반환)인 경우 응답을 기다리지 않고 워커를 반납하며,
+ * 응답 콜백에서 결과를 처리한 뒤 같은 목적지의 다음 알림을 이어서 전송한다.
+ */
+public class AlertDispatcher {
+
+    /**
+     * 목적지로 알림을 전송하는 작업. 동기 전송은 완료된 Future를 반환한다.
+     */
+    public interface Task {
+        CompletableFuture<SendResult> send();
+
+        /**
+         * overflow 정책으로 전송하지 않고 버려졌을 때 호출된다. (잠금 밖에서 호출)
+         */
+        default void dropped() {
+        }
+    }
+
+    /**
+     * 큐가 가득 찼을 때의 처리 정책
+     */
+    public enum OverflowPolicy {
+        DROP_OLDEST, // 가장 오래된 알림을 버림
+        DROP_LEVEL,  // 가장 낮은 레벨의 알림 중 가장 오래된 것을 버림
+        BLOCK;       // 지정된 시간 동안 대기 후 버림
+
+        public static OverflowPolicy of(String value) {
+            if (value != null) {
+                for (OverflowPolicy policy : values()) {
+                    if (policy.name().equalsIgnoreCase(value.trim())) {
+                        return policy;
+                    }
+                }
+            }
+            return DROP_OLDEST;
+        }
+    }
+
+    private static final int DRAIN_BATCH_SIZE = 16;
+    private static final long STATS_INTERVAL = 60; // (sec)
+
+    private final String name;
+    private final int queueSize;
+    private final OverflowPolicy policy;
+    private final long blockTimeoutMillis;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService timer;
+    private final RateLimiter rateLimiter;
+    private final RetryPolicy retryPolicy;
+    private final ConcurrentHashMap<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, DestinationQueue> queues = new ConcurrentHashMap<>();
+    private final AtomicLong droppedCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong retryExhaustedCount = new AtomicLong();
+    private long reportedDelayedCount;
+    private long reportedRetryCount;
+
+    public AlertDispatcher(String name, int threadCount, int queueSize, OverflowPolicy policy,
+            long blockTimeoutMillis, RateLimiter rateLimiter, RetryPolicy retryPolicy) {
+        this.name = name;
+        this.rateLimiter = rateLimiter;
+        this.retryPolicy = retryPolicy;
+        this.queueSize = Math.max(1, queueSize);
+        this.policy = policy;
+        this.blockTimeoutMillis = blockTimeoutMillis;
+
+        final AtomicInteger seq = new AtomicInteger();
+        int threads = Math.max(1, threadCount);
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), r -> {
+                    Thread t = new Thread(r, name + "-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, name + "-timer");
+            t.setDaemon(true);
+            return t;
+        });
+        this.timer.scheduleAtFixedRate(this::reportStats, STATS_INTERVAL, STATS_INTERVAL, TimeUnit.SECONDS);
+    }
+
+    /**
+     * sink 전용 디스패처를 만든다. ext_plugin_{sink}_dispatch_thread_count, ext_plugin_{sink}_dispatch_queue_size가
+     * 설정되어 있으면 공통 설정(ext_plugin_dispatch_...)보다 우선한다.
+     */
+    public static AlertDispatcher create(Configure conf, String sink) {
+        return new AlertDispatcher("scouter-alert-" + sink,
+                conf.getInt("ext_plugin_" + sink + "_dispatch_thread_count",
+                        conf.getInt("ext_plugin_dispatch_thread_count", 4)),
+                conf.getInt("ext_plugin_" + sink + "_dispatch_queue_size",
+                        conf.getInt("ext_plugin_dispatch_queue_size", 1000)),
+                OverflowPolicy.of(conf.getValue("ext_plugin_dispatch_overflow_policy")),
+                conf.getLong("ext_plugin_dispatch_block_timeout_ms", 1000L),
+                new RateLimiter(),
+                new RetryPolicy(conf.getInt("ext_plugin_retry_max_attempts", 5),
+                        conf.getLong("ext_plugin_retry_base_delay_ms", 1000L),
+                        conf.getLong("ext_plugin_retry_max_delay_ms", 60000L),
+                        conf.getInt("ext_plugin_breaker_failure_threshold", 5),
+                        conf.getLong("ext_plugin_breaker_open_ms", 30000L)));
+    }
+
+    /**
+     * 목적지 큐에 전송 작업을 넣는다. 큐가 가득 차서 버려진 경우 false를 반환한다.
+     *
+     * @param rateKey 전송량 제한 단위 (여러 목적지가 하나의 제한을 함께 사용할 수 있다)
+     */
+    public boolean dispatch(String destination, String rateKey, byte level, Task task) {
+        DestinationQueue queue = queues.computeIfAbsent(destination, k -> new DestinationQueue(k, rateKey));
+        Entry entry = new Entry(level, task);
+        boolean accepted;
+        try {
+            accepted = queue.offer(entry);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+
+        if (!accepted) {
+            onDropped(destination, entry);
+        }
+        return accepted;
+    }
+
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    public int getQueuedCount() {
+        int count = 0;
+        for (DestinationQueue queue : queues.values()) {
+            count += queue.size();
+        }
+        return count;
+    }
+
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    public long getRetryExhaustedCount() {
+        return retryExhaustedCount.get();
+    }
+
+    /**
+     * 목적지별 Circuit Breaker 상태
+     */
+    public Map<String, CircuitBreaker.State> getBreakerStates() {
+        Map<String, CircuitBreaker.State> states = new TreeMap<>();
+        for (Map.Entry<String, CircuitBreaker> e : breakers.entrySet()) {
+            states.put(e.getKey(), e.getValue().getState());
+        }
+        return states;
+    }
+
+    public void shutdown() {
+        timer.shutdown();
+        workers.shutdown();
+    }
+
+    private void schedule(DestinationQueue queue) {
+        try {
+            workers.execute(() -> drain(queue));
+        } catch (RejectedExecutionException e) {
+            queue.clear();
+        }
+    }
+
+    private void scheduleLater(DestinationQueue queue, long delayMillis) {
+        try {
+            timer.schedule(() -> schedule(queue), delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            queue.clear();
+        }
+    }
+
+    private void drain(DestinationQueue queue) {
+        for (int i = 0; i < DRAIN_BATCH_SIZE; i++) {
+            Entry entry = queue.peek();
+            if (entry == null) {
+                return;
+            }
+
+            // Circuit Breaker가 OPEN이면 알림을 큐에 남겨둔 채 워커를 반납
+            CircuitBreaker breaker = breaker(queue.destination);
+            long wait = breaker.acquire(System.currentTimeMillis());
+            if (wait > 0) {
+                scheduleLater(queue, wait);
+                return;
+            }
+
+            // 전송량 제한에 걸리면 워커를 반납하고 대기 시간 후 다시 시도
+            wait = rateLimiter.reserve(queue.rateKey);
+            if (wait > 0) {
+                if (entry.throttledSince == 0L) {
+                    entry.throttledSince = System.currentTimeMillis();
+                }
+                scheduleLater(queue, wait);
+                return;
+            }
+
+            CompletableFuture<SendResult> future;
+            try {
+                future = entry.task.send();
+            } catch (Throwable t) {
+                Logger.printStackTrace(t);
+                future = CompletableFuture.completedFuture(SendResult.FAILED);
+            }
+
+            if (!future.isDone()) {
+                // 비동기 전송은 워커를 반납하고 응답 콜백에서 이어서 처리한다.
+                future.whenComplete((result, t) -> {
+                    if (complete(queue, entry, breaker, result, t)) {
+                        schedule(queue);
+                    }
+                });
+                return;
+            }
+            if (!complete(queue, entry, breaker, future.getNow(null), null)) {
+                return;
+            }
+        }
+        // 다른 목적지가 굶지 않도록 배치 단위로 워커를 양보한다.
+        schedule(queue);
+    }
+
+    /**
+     * 전송 결과를 처리한다. 같은 목적지의 다음 알림을 바로 전송해도 되면 true,
+     * 대기 후 다시 스케줄되었으면 false를 반환한다.
+     */
+    private boolean complete(DestinationQueue queue, Entry entry, CircuitBreaker breaker, SendResult result,
+            Throwable t) {
+        if (t != null || result == null) {
+            if (t != null) {
+                Logger.printStackTrace(t);
+            }
+            result = SendResult.FAILED;
+        }
+
+        if (result.status == SendResult.Status.THROTTLED) {
+            // 429 Retry-After 동안 같은 Webhook을 쓰는 목적지를 모두 멈추고 같은 알림을 다시 전송한다.
+            if (entry.throttledSince == 0L) {
+                entry.throttledSince = System.currentTimeMillis();
+            }
+            rateLimiter.pause(queue.rateKey, result.retryAfterMillis);
+            scheduleLater(queue, result.retryAfterMillis);
+            return false;
+        }
+
+        if (result.status == SendResult.Status.RETRY) {
+            breaker.onFailure(System.currentTimeMillis());
+            entry.attempts++;
+            if (entry.attempts < retryPolicy.maxAttempts) {
+                // 순서 유지를 위해 같은 알림을 큐 앞에 둔 채 백오프 후 재전송
+                retryCount.incrementAndGet();
+                scheduleLater(queue, retryPolicy.backoffMillis(entry.attempts));
+                return false;
+            }
+            retryExhaustedCount.incrementAndGet();
+            Logger.println("[" + name + "] alert dropped after " + entry.attempts + " attempts : "
+                    + queue.destination);
+        } else if (result.status == SendResult.Status.SUCCESS) {
+            breaker.onSuccess();
+        }
+        // FAILED(재시도하지 않는 실패)는 대상의 상태를 알려주지 않으므로 차단기를 그대로 둔다.
+
+        if (entry.throttledSince != 0L) {
+            rateLimiter.recordDelay(System.currentTimeMillis() - entry.throttledSince);
+        }
+        queue.remove(entry);
+        return true;
+    }
+
+    private CircuitBreaker breaker(String destination) {
+        CircuitBreaker breaker = breakers.get(destination);
+        if (breaker == null) {
+            breaker = breakers.computeIfAbsent(destination, k -> new CircuitBreaker(k,
+                    retryPolicy.breakerFailureThreshold, retryPolicy.breakerOpenMillis));
+        }
+        return breaker;
+    }
+
+    private void reportStats() {
+        long delayed = rateLimiter.getDelayedCount();
+        long retries = retryCount.get();
+        if (delayed != reportedDelayedCount || retries != reportedRetryCount) {
+            Logger.println("[" + name + "] rate limited alerts : " + delayed
+                    + ", total wait : " + rateLimiter.getDelayedMillis() + " ms"
+                    + ", max wait : " + rateLimiter.getMaxDelayedMillis() + " ms"
+                    + ", retries : " + retries + ", retry exhausted : " + getRetryExhaustedCount()
+                    + ", queued : " + getQueuedCount() + ", dropped : " + getDroppedCount());
+            reportedDelayedCount = delayed;
+            reportedRetryCount = retries;
+        }
+
+        for (Map.Entry<String, CircuitBreaker.State> e : getBreakerStates().entrySet()) {
+            if (e.getValue() != CircuitBreaker.State.CLOSED) {
+                Logger.println("[" + name + "] circuit breaker " + e.getValue() + " : " + e.getKey()
+                        + ", parked : " + queues.get(e.getKey()).size());
+            }
+        }
+    }
+
+    /**
+     * 재전송 및 Circuit Breaker 설정
+     *
+     * ex)
+     *   ext_plugin_retry_max_attempts=5
+     *   ext_plugin_retry_base_delay_ms=1000
+     *   ext_plugin_retry_max_delay_ms=60000
+     *   ext_plugin_breaker_failure_threshold=5
+     *   ext_plugin_breaker_open_ms=30000
+     */
+    public static class RetryPolicy {
+        final int maxAttempts;
+        final long baseDelayMillis;
+        final long maxDelayMillis;
+        final int breakerFailureThreshold;
+        final long breakerOpenMillis;
+
+        public RetryPolicy(int maxAttempts, long baseDelayMillis, long maxDelayMillis,
+                int breakerFailureThreshold, long breakerOpenMillis) {
+            this.maxAttempts = Math.max(1, maxAttempts);
+            this.baseDelayMillis = Math.max(1L, baseDelayMillis);
+            this.maxDelayMillis = Math.max(this.baseDelayMillis, maxDelayMillis);
+            this.breakerFailureThreshold = breakerFailureThreshold;
+            this.breakerOpenMillis = breakerOpenMillis;
+        }
+
+        /**
+         * attempt번째 실패 후 대기 시간. base * 2^(attempt-1)을 상한으로 하여 절반 이상 구간에서 무작위로 선택한다.
+         */
+        long backoffMillis(int attempt) {
+            long delay = baseDelayMillis << Math.min(attempt - 1, 20);
+            delay = Math.min(delay, maxDelayMillis);
+            return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+        }
+    }
+
+    private void onDropped(String destination, Entry entry) {
+        long dropped = droppedCount.incrementAndGet();
+        if (dropped == 1 || dropped % 100 == 0) {
+            Logger.println("[" + name + "] alert queue overflow (" + policy + ") for " + destination
+                    + ", dropped total : " + dropped);
+        }
+        try {
+            entry.task.dropped();
+        } catch (Throwable t) {
+            Logger.printStackTrace(t);
+        }
+    }
+
+    private static class Entry {
+        final byte level;
+        final Task task;
+        long throttledSince;
+        int attempts;
+
+        Entry(byte level, Task task) {
+            this.level = level;
+            this.task = task;
+        }
+    }
+
+    private class DestinationQueue {
+        private final String destination;
+        private final String rateKey;
+        private final ArrayDeque<Entry> deque = new ArrayDeque<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notFull = lock.newCondition();
+        private boolean scheduled;
+
+        DestinationQueue(String destination, String rateKey) {
+            this.destination = destination;
+            this.rateKey = rateKey;
+        }
+
+        boolean offer(Entry entry) throws InterruptedException {
+            boolean needSchedule = false;
+            long nanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+            // 버린 알림의 처리(Outbox ack 등)는 잠금 밖에서 한다.
+            List<Entry> evicted = null;
+
+            lock.lock();
+            try {
+                while (deque.size() >= queueSize) {
+                    Entry victim;
+                    if (policy == OverflowPolicy.BLOCK) {
+                        if (nanos <= 0L) {
+                            return false;
+                        }
+                        nanos = notFull.awaitNanos(nanos);
+                        continue;
+                    } else if (policy == OverflowPolicy.DROP_LEVEL) {
+                        victim = evictLowestLevel(entry.level);
+                        if (victim == null) {
+                            return false;
+                        }
+                    } else {
+                        victim = deque.pollFirst();
+                    }
+                    if (evicted == null) {
+                        evicted = new ArrayList<>(1);
+                    }
+                    evicted.add(victim);
+                }
+                deque.addLast(entry);
+                if (!scheduled) {
+                    scheduled = true;
+                    needSchedule = true;
+                }
+            } finally {
+                lock.unlock();
+                if (evicted != null) {
+                    for (Entry victim : evicted) {
+                        onDropped(destination, victim);
+                    }
+                }
+            }
+
+            if (needSchedule) {
+                schedule(this);
+            }
+            return true;
+        }
+
+        /**
+         * 들어오는 알림보다 높지 않은 레벨 중 가장 낮은 레벨의 가장 오래된 알림을 버린다. 버린 알림이 없으면 null
+         */
+        private Entry evictLowestLevel(byte incomingLevel) {
+            Entry victim = null;
+            for (Entry queued : deque) {
+                if (victim == null || queued.level < victim.level) {
+                    victim = queued;
+                }
+            }
+            if (victim == null || victim.level > incomingLevel) {
+                return null;
+            }
+
+            Iterator<Entry> it = deque.iterator();
+            while (it.hasNext()) {
+                if (it.next() == victim) {
+                    it.remove();
+                    break;
+                }
+            }
+            return victim;
+        }
+
+        /**
+         * 큐의 첫 번째 알림을 꺼내지 않고 반환한다. 큐가 비었으면 스케줄 상태를 해제한다.
+         */
+        Entry peek() {
+            lock.lock();
+            try {
+                Entry entry = deque.peekFirst();
+                if (entry == null) {
+                    scheduled = false;
+                }
+                return entry;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 전송을 마친 알림을 제거한다. 전송 중에 overflow 정책으로 이미 버려졌을 수 있다.
+         */
+        void remove(Entry entry) {
+            lock.lock();
+            try {
+                if (deque.peekFirst() == entry) {
+                    deque.pollFirst();
+                } else {
+                    deque.remove(entry);
+                }
+                notFull.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return deque.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void clear() {
+            lock.lock();
+            try {
+                deque.clear();
+                scheduled = false;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
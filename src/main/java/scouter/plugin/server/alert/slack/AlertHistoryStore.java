@@ -0,0 +1,350 @@
+package scouter.plugin.server.alert.slack;
+
+/**
+ * 알림 패턴별 이력(마지막 갱신 시각, 발생 횟수) 저장소
+ *
+ * 키는 (종류, objHash, 서비스/카운터 id)를 기본형으로 묶은 값이며, open addressing(linear probing) 테이블의 슬롯 번호로 찾는다.
+ * 패턴별 상태는 슬롯 번호로 접근하는 기본형 배열에 보관하므로 패턴마다 객체를 만들지 않는다.
+ * 최대 개수를 넘으면 가장 오래 갱신되지 않은 항목을 일부 표본 중에서 골라 제거한다.
+ *
+ * XLog, 카운터, 스레드 수 점검 스레드가 동시에 사용하므로 테이블을 여러 구역(stripe)으로 나누어 구역별로 잠근다.
+ * 구간 확인 → 횟수 증가 → 초기화는 {@link #advance}에서 한 패턴에 대해 원자적으로 수행된다.
+ *
+ * 패턴마다 구간 종료 시각을 타이밍 휠에 한 번 등록해 두고, {@link #expire}가 종료된 구간만 처리한다.
+ * 다음 이벤트가 오지 않아도 누적된 횟수는 구간이 끝날 때 알림으로 보내지고(flush), 구간 두 개 동안 이벤트가 없는 패턴은 제거된다.
+ * 알림을 다시 만들 수 있도록 마지막 이벤트의 값, 기준값, 발생 시각만 기본형으로 보관한다. (알림 정보 객체는 보관하지 않음)
+ * 전체 테이블을 훑지 않으므로 패턴 수와 관계없이 만료된 패턴 수만큼만 일한다.
+ */
+public class AlertHistoryStore {
+    private static final int EVICTION_SAMPLE = 16;
+
+    public static final int FIRST = 0;     // 새 패턴 (이력 생성)
+    public static final int NOT_YET = 1;   // 구간 안 - 횟수 증가
+    public static final int ALERT = 2;     // 구간 종료 - 알림 후 초기화
+    public static final int SKIP = 3;      // 구간 종료 - 알림 대상 아님 (이력 유지)
+    public static final int RESET = 4;     // 구간을 두 번 이상 지남 - 초기화
+
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final TimingWheel wheel;
+
+    public AlertHistoryStore(int max) {
+        this(max, Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    public AlertHistoryStore(int max, int concurrency) {
+        int count = Integer.highestOneBit(Math.max(1, Math.min(64, concurrency)) * 2 - 1);
+        this.segments = new Segment[count];
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(count);
+        int segmentMax = Math.max(1, max) / count + 1;
+        this.wheel = new TimingWheel(System.currentTimeMillis(), Math.max(1, max));
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(segmentMax, wheel);
+        }
+    }
+
+    /**
+     * objHash와 서비스/카운터 id를 하나의 키로 묶는다.
+     */
+    public static long key(int objHash, int id) {
+        return ((long) objHash << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    public static int objHash(long key) {
+        return (int) (key >>> 32);
+    }
+
+    /**
+     * 키에 담긴 서비스/카운터 id
+     */
+    public static int id(long key) {
+        return (int) key;
+    }
+
+    /**
+     * 패턴의 구간 상태를 한 번에 진행한다.
+     *
+     * 이력이 없으면 만들고(FIRST), 구간(interval) 안이면 횟수를 증가시키며(NOT_YET),
+     * 구간이 끝났으면 policy가 알림을 허용할 때만 초기화하고(ALERT / SKIP), 구간을 두 번 이상 지났으면 초기화한다(RESET).
+     * policy는 구역 잠금 안에서 호출되므로 가벼운 계산만 해야 한다.
+     * 마지막 이벤트의 값(value), 기준값(threshold), 발생 시각(endTime)은 구간이 끝날 때 {@link ExpiryListener}로 전달된다.
+     */
+    public Transition advance(byte kind, long key, long now, long intervalMillis, WindowPolicy policy,
+            double value, int threshold, long endTime) {
+        int hash = hash(kind, key);
+        Segment segment = segmentOf(hash);
+        synchronized (segment) {
+            return segment.advance(kind, key, hash, now, intervalMillis, policy, value, threshold, endTime);
+        }
+    }
+
+    /**
+     * now까지 끝난 구간을 처리한다. 타이머 스레드 하나에서 주기적으로(1초 이하) 호출한다.
+     *
+     * 누적 횟수가 있으면 구간을 초기화한 뒤 잠금 밖에서 {@link ExpiryListener#flushed}를 호출한다. (알림을 보낼지는 listener가 정한다)
+     * 누적 횟수가 없으면 구간 두 개가 지날 때까지 기다렸다가 제거한다.
+     */
+    public void expire(long now, ExpiryListener listener) {
+        wheel.advance(now, (kind, key, ticket) -> {
+            int hash = hash(kind, key);
+            Segment segment = segmentOf(hash);
+            Expired expired;
+            synchronized (segment) {
+                int i = segment.indexOf(kind, key, hash);
+                if (i < 0 || segment.tickets[i] != ticket) {
+                    return; // 제거되었거나 다시 만들어진 패턴
+                }
+
+                long interval = segment.intervals[i];
+                long windowEnd = segment.lastModified[i] + interval;
+                if (now < windowEnd) {
+                    // 이벤트 처리 중에 구간이 새로 시작됨
+                    wheel.schedule(kind, key, ticket, windowEnd);
+                    return;
+                }
+
+                int historyCount = segment.counts[i];
+                if (historyCount == 0) {
+                    if (now >= windowEnd + interval) {
+                        segment.removeAt(i);
+                    } else {
+                        wheel.schedule(kind, key, ticket, windowEnd + interval);
+                    }
+                    return;
+                }
+
+                expired = new Expired(kind, key, segment.values[i], segment.thresholds[i], segment.endTimes[i],
+                        interval, historyCount, now - segment.lastModified[i]);
+                segment.lastModified[i] = now;
+                segment.counts[i] = 0;
+                wheel.schedule(kind, key, ticket, now + interval);
+            }
+            listener.flushed(expired);
+        });
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    private Segment segmentOf(int hash) {
+        return segments[segmentShift == 32 ? 0 : hash >>> segmentShift];
+    }
+
+    private static int hash(byte kind, long key) {
+        long h = (key ^ ((long) kind << 59)) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * 구간이 끝났을 때 알림을 보낼지 결정한다.
+     */
+    public interface WindowPolicy {
+        boolean shouldAlert(int historyCount, long diff);
+    }
+
+    /**
+     * 다음 이벤트 없이 끝난 구간 처리
+     */
+    public interface ExpiryListener {
+        void flushed(Expired expired);
+    }
+
+    /**
+     * 다음 이벤트 없이 끝난 구간. value, threshold, endTime은 구간의 마지막 이벤트 값이다.
+     */
+    public static final class Expired {
+        public final byte kind;
+        public final long key;
+        public final double value;
+        public final int threshold;
+        public final long endTime;
+        public final long intervalMillis;
+        public final int historyCount;
+        public final long diff;
+
+        Expired(byte kind, long key, double value, int threshold, long endTime, long intervalMillis,
+                int historyCount, long diff) {
+            this.kind = kind;
+            this.key = key;
+            this.value = value;
+            this.threshold = threshold;
+            this.endTime = endTime;
+            this.intervalMillis = intervalMillis;
+            this.historyCount = historyCount;
+            this.diff = diff;
+        }
+    }
+
+    /**
+     * advance 결과. historyCount는 NOT_YET이면 증가된 값, ALERT/SKIP이면 구간 동안 누적된 값이다.
+     */
+    public static final class Transition {
+        public final int state;
+        public final int historyCount;
+        public final long diff;
+
+        Transition(int state, int historyCount, long diff) {
+            this.state = state;
+            this.historyCount = historyCount;
+            this.diff = diff;
+        }
+    }
+
+    private static final class Segment {
+        private final int max;
+        private final int mask;
+        private final TimingWheel wheel;
+
+        private final byte[] kinds; // 0 : 빈 슬롯
+        private final long[] keys;
+        private final long[] lastModified;
+        private final int[] counts;
+        private final long[] intervals;
+        private final int[] tickets; // 휠에 등록된 항목과 패턴을 맞춰 보는 번호 (다시 만들어진 패턴 구분)
+        // 마지막 이벤트 (구간이 끝날 때 알림을 다시 만드는 데 사용)
+        private final double[] values;
+        private final int[] thresholds;
+        private final long[] endTimes;
+
+        private int size;
+        private int hand;
+        private int nextTicket;
+
+        Segment(int max, TimingWheel wheel) {
+            this.wheel = wheel;
+            this.max = Math.max(16, max);
+            int capacity = Integer.highestOneBit(this.max * 2 - 1) << 1; // 사용률 50% 이하
+            this.mask = capacity - 1;
+            this.kinds = new byte[capacity];
+            this.keys = new long[capacity];
+            this.lastModified = new long[capacity];
+            this.counts = new int[capacity];
+            this.intervals = new long[capacity];
+            this.tickets = new int[capacity];
+            this.values = new double[capacity];
+            this.thresholds = new int[capacity];
+            this.endTimes = new long[capacity];
+        }
+
+        Transition advance(byte kind, long key, int hash, long now, long intervalMillis, WindowPolicy policy,
+                double value, int threshold, long endTime) {
+            int i = indexOf(kind, key, hash);
+            if (i < 0) {
+                i = insert(kind, key, hash, now, intervalMillis);
+                values[i] = value;
+                thresholds[i] = threshold;
+                endTimes[i] = endTime;
+                return new Transition(FIRST, 0, 0);
+            }
+            intervals[i] = intervalMillis;
+            values[i] = value;
+            thresholds[i] = threshold;
+            endTimes[i] = endTime;
+
+            long diff = now - lastModified[i];
+            if (diff < intervalMillis) {
+                return new Transition(NOT_YET, ++counts[i], diff);
+            } else if (diff < intervalMillis * 2) {
+                int historyCount = counts[i];
+                if (!policy.shouldAlert(historyCount, diff)) {
+                    return new Transition(SKIP, historyCount, diff);
+                }
+                lastModified[i] = now;
+                counts[i] = 0;
+                return new Transition(ALERT, historyCount, diff);
+            } else {
+                lastModified[i] = now;
+                counts[i] = 0;
+                return new Transition(RESET, 0, diff);
+            }
+        }
+
+        private int insert(byte kind, long key, int hash, long now, long intervalMillis) {
+            if (size >= max) {
+                evict();
+            }
+            int i = hash & mask;
+            while (kinds[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            kinds[i] = kind;
+            keys[i] = key;
+            lastModified[i] = now;
+            counts[i] = 0;
+            intervals[i] = intervalMillis;
+            tickets[i] = ++nextTicket;
+            size++;
+            wheel.schedule(kind, key, tickets[i], now + intervalMillis);
+            return i;
+        }
+
+        private int indexOf(byte kind, long key, int hash) {
+            int i = hash & mask;
+            while (kinds[i] != 0) {
+                if (kinds[i] == kind && keys[i] == key) {
+                    return i;
+                }
+                i = (i + 1) & mask;
+            }
+            return -1;
+        }
+
+        /**
+         * hand 위치부터 사용 중인 슬롯을 일부 살펴보고 가장 오래된 항목을 제거한다.
+         */
+        private void evict() {
+            int oldest = -1;
+            int seen = 0;
+            for (int n = 0; n <= mask && seen < EVICTION_SAMPLE; n++) {
+                int i = (hand + n) & mask;
+                if (kinds[i] != 0) {
+                    if (oldest < 0 || lastModified[i] < lastModified[oldest]) {
+                        oldest = i;
+                    }
+                    seen++;
+                }
+            }
+            if (oldest >= 0) {
+                hand = (oldest + 1) & mask;
+                removeAt(oldest);
+            }
+        }
+
+        /**
+         * linear probing의 검색 경로가 끊기지 않도록 뒤따르는 항목을 앞으로 당긴다. (backward shift deletion)
+         */
+        private void removeAt(int hole) {
+            int j = hole;
+            while (true) {
+                j = (j + 1) & mask;
+                if (kinds[j] == 0) {
+                    break;
+                }
+                int home = hash(kinds[j], keys[j]) & mask;
+                // home이 (hole, j] 구간 밖이면 hole로 옮겨도 검색 경로가 유지된다.
+                boolean between = hole <= j ? (hole < home && home <= j) : (hole < home || home <= j);
+                if (!between) {
+                    kinds[hole] = kinds[j];
+                    keys[hole] = keys[j];
+                    lastModified[hole] = lastModified[j];
+                    counts[hole] = counts[j];
+                    intervals[hole] = intervals[j];
+                    tickets[hole] = tickets[j];
+                    values[hole] = values[j];
+                    thresholds[hole] = thresholds[j];
+                    endTimes[hole] = endTimes[j];
+                    hole = j;
+                }
+            }
+            kinds[hole] = 0;
+            size--;
+        }
+    }
+}
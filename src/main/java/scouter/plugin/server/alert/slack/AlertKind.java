@@ -0,0 +1,17 @@
+package scouter.plugin.server.alert.slack;
+
+/**
+ * 알림 이력 구분. 이력 키는 (종류, objHash, 서비스/카운터 id)로 구성된다.
+ */
+public final class AlertKind {
+    public static final byte ERROR = 1;
+    public static final byte ELAPSED = 2;
+    public static final byte GC_TIME = 3;
+    public static final byte THREAD_COUNT = 4;
+    public static final byte PERCENTILE = 5;
+    public static final byte COUNTER_RULE = 6;
+    public static final byte ANOMALY = 7;
+
+    private AlertKind() {
+    }
+}
@@ -0,0 +1,195 @@
+package scouter.plugin.server.alert.slack;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import scouter.lang.AlertLevel;
+import scouter.lang.pack.AlertPack;
+import scouter.plugin.server.alert.messenger.JsonPayloadWriter;
+import scouter.server.core.AgentManager;
+
+/**
+ * 메신저로 전송할 알림 내용
+ *
+ * AlertPack에서 에이전트 이름, 제목, 메시지를 한 번만 해석하여 Slack, Works 전송에 공통으로 사용한다.
+ */
+public class AlertMessage {
+    // JSON 이스케이프된 toText() 고정 문구
+    private static final byte[] TYPE_LABEL = JsonPayloadWriter.utf8("[TYPE] : ");
+    private static final byte[] NAME_LABEL = JsonPayloadWriter.utf8("\\n[NAME] : ");
+    private static final byte[] LEVEL_LABEL = JsonPayloadWriter.utf8("\\n[LEVEL] : ");
+    private static final byte[] TITLE_LABEL = JsonPayloadWriter.utf8("\\n[TITLE] : ");
+    private static final byte[] MESSAGE_LABEL = JsonPayloadWriter.utf8("\\n[MESSAGE] : ");
+
+    public final int objHash;
+    public final String objType;
+    public final String name;
+    public final byte level;
+    public final String title;
+    public final String message;
+    public final long time;
+    public final long outboxId; // Outbox에 기록되지 않은 경우 0
+
+    public AlertMessage(int objHash, String objType, String name, byte level, String title, String message,
+            long time) {
+        this(objHash, objType, name, level, title, message, time, 0L);
+    }
+
+    public AlertMessage(int objHash, String objType, String name, byte level, String title, String message,
+            long time, long outboxId) {
+        this.objHash = objHash;
+        this.objType = objType;
+        this.name = name;
+        this.level = level;
+        this.title = title;
+        this.message = message;
+        this.time = time;
+        this.outboxId = outboxId;
+    }
+
+    public static AlertMessage of(AlertPack pack) {
+        // Get the agent Name
+        String name = AgentManager.getAgentName(pack.objHash) == null ? "N/A"
+                : AgentManager.getAgentName(pack.objHash);
+
+        if (name.equals("N/A") && pack.message.endsWith("connected.")) {
+            int idx = pack.message.indexOf("connected");
+            if (pack.message.indexOf("reconnected") > -1) {
+                name = pack.message.substring(0, idx - 6);
+            } else {
+                name = pack.message.substring(0, idx - 4);
+            }
+        }
+
+        String title = pack.title;
+        String msg = pack.message;
+        if (title.equals("INACTIVE_OBJECT")) {
+            title = "An object has been inactivated.";
+            msg = pack.message.substring(0, pack.message.indexOf("OBJECT") - 1);
+        }
+
+        return new AlertMessage(pack.objHash, pack.objType, name, pack.level, title, msg, pack.time);
+    }
+
+    public AlertMessage withOutboxId(long id) {
+        return new AlertMessage(objHash, objType, name, level, title, message, time, id);
+    }
+
+    public String getLevelName() {
+        return AlertLevel.getName(level);
+    }
+
+    /**
+     * 단건 알림 본문
+     */
+    public String toText() {
+        return "[TYPE] : " + objType.toUpperCase() + "\n" +
+                "[NAME] : " + name + "\n" +
+                "[LEVEL] : " + getLevelName() + "\n" +
+                "[TITLE] : " + title + "\n" +
+                "[MESSAGE] : " + message;
+    }
+
+    /**
+     * toText()와 같은 본문을 JSON 문자열 내용(따옴표 제외)으로 기록한다.
+     */
+    public void writeText(JsonPayloadWriter writer) {
+        writer.raw(TYPE_LABEL).escaped(objType.toUpperCase())
+                .raw(NAME_LABEL).escaped(name)
+                .raw(LEVEL_LABEL).escaped(getLevelName())
+                .raw(TITLE_LABEL).escaped(title)
+                .raw(MESSAGE_LABEL).escaped(message);
+    }
+
+    /**
+     * 전송 크기 제한 계산에 사용하는 UTF-8 기준 대략적인 크기
+     */
+    public int estimateBytes() {
+        return utf8Length(objType) + utf8Length(name) + utf8Length(title) + utf8Length(message) + 64;
+    }
+
+    /**
+     * 여러 건의 알림을 레벨, 제목별로 묶은 섹션 목록
+     */
+    public static List<String> toSections(List<AlertMessage> messages) {
+        Map<String, StringBuilder> sections = new LinkedHashMap<>();
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (AlertMessage m : messages) {
+            String key = "[" + m.getLevelName() + "] " + m.title;
+            StringBuilder section = sections.get(key);
+            if (section == null) {
+                section = new StringBuilder();
+                sections.put(key, section);
+                counts.put(key, 0);
+            }
+            counts.put(key, counts.get(key) + 1);
+            section.append("\n- [").append(m.objType.toUpperCase()).append("] ").append(m.name)
+                    .append(" : ").append(m.message);
+        }
+
+        List<String> list = new ArrayList<>(sections.size());
+        for (Map.Entry<String, StringBuilder> e : sections.entrySet()) {
+            list.add(e.getKey() + " (" + counts.get(e.getKey()) + ")" + e.getValue());
+        }
+        return list;
+    }
+
+    /**
+     * 여러 건의 알림을 하나의 텍스트로 합친다. 단건이면 기존 본문과 동일하다.
+     */
+    public static String toDigestText(List<AlertMessage> messages) {
+        if (messages.size() == 1) {
+            return messages.get(0).toText();
+        }
+        StringBuilder sb = new StringBuilder();
+        sb.append("[DIGEST] ").append(messages.size()).append(" alerts");
+        for (String section : toSections(messages)) {
+            sb.append("\n\n").append(section);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * toDigestText()와 같은 본문을 JSON 문자열 내용(따옴표 제외)으로 기록한다.
+     */
+    public static void writeDigestText(List<AlertMessage> messages, JsonPayloadWriter writer) {
+        if (messages.size() == 1) {
+            messages.get(0).writeText(writer);
+        } else {
+            writer.escaped(toDigestText(messages));
+        }
+    }
+
+    public static byte maxLevel(List<AlertMessage> messages) {
+        byte level = AlertLevel.INFO;
+        for (AlertMessage m : messages) {
+            if (m.level > level) {
+                level = m.level;
+            }
+        }
+        return level;
+    }
+
+    static int utf8Length(CharSequence s) {
+        if (s == null) {
+            return 0;
+        }
+        int count = 0;
+        for (int i = 0, len = s.length(); i < len; i++) {
+            char ch = s.charAt(i);
+            if (ch <= 0x7F) {
+                count++;
+            } else if (ch <= 0x7FF) {
+                count += 2;
+            } else if (Character.isHighSurrogate(ch)) {
+                count += 4;
+                i++;
+            } else {
+                count += 3;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,420 @@
+package scouter.plugin.server.alert.slack;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import scouter.io.DataInputX;
+import scouter.io.DataOutputX;
+import scouter.server.Configure;
+import scouter.server.Logger;
+
+/**
+ * 미전송 알림 보관용 디스크 Outbox
+ *
+ * 전송할 알림을 세그먼트 파일({seq}.log)에 순서대로 추가하고, 전송이 끝나면 ID를 ack 파일({seq}.ack)에 기록한다.
+ * 모든 알림이 ack된 세그먼트는 삭제하며, 서버 재시작 시 ack되지 않은 알림을 다시 전송한다.
+ * fsync는 백그라운드에서 주기적으로 수행하므로 알림 추가 시 디스크 flush를 기다리지 않는다.
+ *
+ * ex)
+ *   ext_plugin_outbox_enabled=true
+ *   ext_plugin_outbox_dir=./ext_plugin_outbox
+ *   ext_plugin_outbox_durability=batch
+ *   ext_plugin_outbox_fsync_interval_ms=1000
+ *   ext_plugin_outbox_segment_size=8388608
+ *   ext_plugin_outbox_retention_hours=24
+ */
+public class AlertOutbox {
+
+    /**
+     * 디스크에 기록되었지만 아직 전송이 확인되지 않은 알림
+     */
+    public static class Record {
+        public final AlertMessage message;
+        public final AlertSink sink;
+        public final AlertDestination destination;
+
+        Record(AlertMessage message, AlertSink sink, AlertDestination destination) {
+            this.message = message;
+            this.sink = sink;
+            this.destination = destination;
+        }
+    }
+
+    private static final String LOG_SUFFIX = ".log";
+    private static final String ACK_SUFFIX = ".ack";
+
+    private final File dir;
+    private final long segmentSize;
+    private final boolean fsync;
+    private final long retentionMillis;
+    private final TreeMap<Integer, Segment> segments = new TreeMap<>();
+    private final ScheduledExecutorService flusher;
+
+    private Segment current;
+    private boolean dirty;
+
+    private AlertOutbox(File dir, long segmentSize, boolean fsync, long fsyncIntervalMillis, long retentionMillis) {
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+        this.retentionMillis = retentionMillis;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "scouter-alert-outbox");
+            t.setDaemon(true);
+            return t;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flushAndCompact, fsyncIntervalMillis, fsyncIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Outbox를 연다. 사용하지 않도록 설정되었거나 열 수 없으면 null을 반환한다.
+     */
+    public static AlertOutbox open(Configure conf) {
+        if (!conf.getBoolean("ext_plugin_outbox_enabled", false)) {
+            return null;
+        }
+
+        File dir = new File(conf.getValue("ext_plugin_outbox_dir", "./ext_plugin_outbox"));
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Logger.println("[Error] : cannot create alert outbox directory " + dir.getAbsolutePath());
+            return null;
+        }
+
+        final AlertOutbox outbox = new AlertOutbox(dir,
+                conf.getLong("ext_plugin_outbox_segment_size", 8 * 1024 * 1024L),
+                !"none".equalsIgnoreCase(conf.getValue("ext_plugin_outbox_durability", "batch")),
+                Math.max(10L, conf.getLong("ext_plugin_outbox_fsync_interval_ms", 1000L)),
+                conf.getLong("ext_plugin_outbox_retention_hours", 24L) * 3600 * 1000L);
+        Runtime.getRuntime().addShutdownHook(new Thread(outbox::close, "scouter-alert-outbox-shutdown"));
+        return outbox;
+    }
+
+    /**
+     * 기존 세그먼트를 읽어 ack되지 않은 알림을 반환한다. 알림을 추가하기 전에 한 번만 호출한다.
+     */
+    public synchronized List<Record> recover(Collection<AlertSink> sinks) {
+        Map<String, AlertSink> sinkMap = new HashMap<>();
+        for (AlertSink sink : sinks) {
+            sinkMap.put(sink.getName(), sink);
+        }
+
+        List<Record> pending = new ArrayList<>();
+        File[] files = dir.listFiles((d, name) -> name.endsWith(LOG_SUFFIX));
+        TreeMap<Integer, File> logs = new TreeMap<>();
+        if (files != null) {
+            for (File file : files) {
+                try {
+                    logs.put(Integer.parseInt(file.getName().substring(0, file.getName().length() - 4)), file);
+                } catch (NumberFormatException e) {
+                    // ignore unknown file
+                }
+            }
+        }
+
+        for (Map.Entry<Integer, File> e : logs.entrySet()) {
+            Segment segment = new Segment(e.getKey(), e.getValue().lastModified());
+            try {
+                readSegment(segment, readAcks(segment.ackFile()), sinkMap, pending);
+            } catch (IOException ex) {
+                Logger.println("[Error] : cannot read alert outbox segment " + segment.logFile() + " : "
+                        + ex.getMessage());
+            }
+            segments.put(segment.seq, segment);
+            if (segment.acked >= segment.entries) {
+                delete(segment);
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            Logger.println("[AlertOutbox] recovered " + pending.size() + " undelivered alerts from " + dir);
+        }
+        return pending;
+    }
+
+    /**
+     * 알림을 Outbox에 추가하고 outboxId가 부여된 알림을 반환한다.
+     */
+    public AlertMessage append(AlertMessage message, AlertSink sink, AlertDestination destination) {
+        byte[] payload;
+        try {
+            payload = encode(message, sink, destination);
+        } catch (IOException e) {
+            Logger.println("[Error] : " + e.getMessage());
+            return message;
+        }
+
+        synchronized (this) {
+            try {
+                if (current == null || current.size >= segmentSize) {
+                    roll();
+                }
+                long id = ((long) current.seq << 32) | (current.entries & 0xFFFFFFFFL);
+                ByteBuffer buffer = ByteBuffer.allocate(12 + payload.length);
+                buffer.putInt(payload.length).putLong(id).put(payload).flip();
+                writeFully(current.log, buffer);
+                current.size += 12 + payload.length;
+                current.entries++;
+                dirty = true;
+                return message.withOutboxId(id);
+            } catch (IOException e) {
+                Logger.println("[Error] : cannot append alert outbox : " + e.getMessage());
+                return message;
+            }
+        }
+    }
+
+    /**
+     * 전송이 끝난 알림을 ack한다. 세그먼트의 모든 알림이 ack되면 세그먼트를 삭제한다.
+     */
+    public synchronized void ack(long id) {
+        Segment segment = segments.get((int) (id >>> 32));
+        if (segment == null) {
+            return;
+        }
+        try {
+            if (segment.ack == null) {
+                segment.ack = FileChannel.open(segment.ackFile().toPath(), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(8);
+            buffer.putLong(id).flip();
+            writeFully(segment.ack, buffer);
+            segment.acked++;
+            dirty = true;
+
+            if (segment != current && segment.acked >= segment.entries) {
+                delete(segment);
+            }
+        } catch (IOException e) {
+            Logger.println("[Error] : cannot write alert outbox ack : " + e.getMessage());
+        }
+    }
+
+    public synchronized void close() {
+        flusher.shutdown();
+        force(openChannels());
+        for (Segment segment : segments.values()) {
+            segment.close();
+        }
+    }
+
+    private void roll() throws IOException {
+        Segment previous = current;
+        int seq = segments.isEmpty() ? 1 : segments.lastKey() + 1;
+        current = new Segment(seq, System.currentTimeMillis());
+        current.log = FileChannel.open(current.logFile().toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segments.put(seq, current);
+
+        if (previous != null) {
+            if (fsync) {
+                previous.log.force(false);
+            }
+            previous.log.close();
+            previous.log = null;
+            if (previous.acked >= previous.entries) {
+                delete(previous);
+            }
+        }
+    }
+
+    private void flushAndCompact() {
+        List<FileChannel> channels = new ArrayList<>();
+        synchronized (this) {
+            if (dirty) {
+                channels = openChannels();
+                dirty = false;
+            }
+
+            // 보관 기간이 지난 세그먼트는 ack 여부와 관계없이 삭제
+            long expired = System.currentTimeMillis() - retentionMillis;
+            for (Segment segment : new ArrayList<>(segments.values())) {
+                if (segment != current && segment.created < expired) {
+                    Logger.println("[AlertOutbox] drop expired segment " + segment.logFile().getName()
+                            + ", undelivered : " + (segment.entries - segment.acked));
+                    delete(segment);
+                }
+            }
+        }
+
+        // fsync는 lock 밖에서 수행하여 알림 추가를 막지 않는다.
+        force(channels);
+    }
+
+    private List<FileChannel> openChannels() {
+        List<FileChannel> channels = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            if (segment.log != null) {
+                channels.add(segment.log);
+            }
+            if (segment.ack != null) {
+                channels.add(segment.ack);
+            }
+        }
+        return channels;
+    }
+
+    private void force(List<FileChannel> channels) {
+        if (!fsync) {
+            return;
+        }
+        for (FileChannel channel : channels) {
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                // 세그먼트가 교체되거나 삭제된 경우
+            } catch (IOException e) {
+                Logger.println("[Error] : cannot sync alert outbox : " + e.getMessage());
+            }
+        }
+    }
+
+    private void delete(Segment segment) {
+        segment.close();
+        segment.logFile().delete();
+        segment.ackFile().delete();
+        segments.remove(segment.seq);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static Set<Long> readAcks(File file) throws IOException {
+        Set<Long> acked = new HashSet<>();
+        if (!file.exists()) {
+            return acked;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(java.nio.file.Files.readAllBytes(file.toPath()));
+        while (buffer.remaining() >= 8) {
+            acked.add(buffer.getLong());
+        }
+        return acked;
+    }
+
+    /**
+     * 세그먼트를 읽어 ack되지 않은 알림을 pending에 추가한다. 기록 도중 중단된 마지막 알림은 무시한다.
+     */
+    private static void readSegment(Segment segment, Set<Long> acked, Map<String, AlertSink> sinks,
+            List<Record> pending) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(java.nio.file.Files.readAllBytes(segment.logFile().toPath()));
+        while (buffer.remaining() >= 12) {
+            int length = buffer.getInt();
+            long id = buffer.getLong();
+            if (length < 0 || length > buffer.remaining()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            buffer.get(payload);
+            segment.entries++;
+
+            if (acked.contains(id)) {
+                segment.acked++;
+                continue;
+            }
+            try {
+                pending.add(decode(payload, id, sinks));
+            } catch (Exception e) {
+                // 읽을 수 없는 알림은 ack된 것으로 간주
+                segment.acked++;
+                Logger.println("[Error] : cannot decode alert outbox entry " + id + " : " + e.getMessage());
+            }
+        }
+    }
+
+    private static byte[] encode(AlertMessage m, AlertSink sink, AlertDestination destination)
+            throws IOException {
+        DataOutputX out = new DataOutputX();
+        out.writeDecimal(m.objHash);
+        writeNullable(out, m.objType);
+        writeNullable(out, m.name);
+        out.writeByte(m.level);
+        writeNullable(out, m.title);
+        writeNullable(out, m.message);
+        out.writeLong(m.time);
+
+        out.writeText(sink.getName());
+        sink.writeDestination(destination, out);
+        return out.toByteArray();
+    }
+
+    private static Record decode(byte[] payload, long id, Map<String, AlertSink> sinks) throws IOException {
+        DataInputX in = new DataInputX(payload);
+        AlertMessage message = new AlertMessage((int) in.readDecimal(), readNullable(in), readNullable(in),
+                in.readByte(), readNullable(in), readNullable(in), in.readLong(), id);
+
+        String name = in.readText();
+        AlertSink sink = sinks.get(name);
+        if (sink == null) {
+            throw new IOException("unknown alert sink : " + name);
+        }
+        return new Record(message, sink, sink.readDestination(in));
+    }
+
+    public static void writeNullable(DataOutputX out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeText(value);
+        }
+    }
+
+    public static String readNullable(DataInputX in) throws IOException {
+        return in.readBoolean() ? in.readText() : null;
+    }
+
+    private class Segment {
+        final int seq;
+        final long created;
+        FileChannel log;
+        FileChannel ack;
+        long size;
+        int entries;
+        int acked;
+
+        Segment(int seq, long created) {
+            this.seq = seq;
+            this.created = created;
+        }
+
+        File logFile() {
+            return new File(dir, seq + LOG_SUFFIX);
+        }
+
+        File ackFile() {
+            return new File(dir, seq + ACK_SUFFIX);
+        }
+
+        void close() {
+            try {
+                if (log != null) {
+                    log.close();
+                    log = null;
+                }
+                if (ack != null) {
+                    ack.close();
+                    ack = null;
+                }
+            } catch (IOException e) {
+                Logger.println("[Error] : " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package scouter.plugin.server.alert.slack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import scouter.lang.pack.ObjectPack;
+import scouter.server.Configure;
+import scouter.server.Logger;
+import scouter.util.IntKeyLinkedMap;
+
+/**
+ * objHash별 알림 목적지 라우팅 테이블
+ *
+ * 객체 이름(서비스명, 호스트명) 분석과 메신저별 목적지 해석은 객체가 등록될 때(object) 또는 처음 알림이 발생할 때 한 번만 수행하고,
+ * 이후 알림은 objHash로 바로 목적지를 찾는다. 설정 파일이 다시 읽히면 테이블을 비우고 필요할 때 다시 만든다.
+ */
+public class AlertRouter {
+    private static final int MAX_ROUTES = 10000;
+
+    private final Configure conf;
+    private final List<AlertSink> sinks;
+    private volatile Table table = new Table(null);
+
+    public AlertRouter(Configure conf, List<AlertSink> sinks) {
+        this.conf = conf;
+        this.sinks = sinks;
+    }
+
+    /**
+     * 객체 등록 시점에 라우팅 정보를 미리 만든다.
+     */
+    public void register(ObjectPack pack) {
+        if (pack == null || pack.objName == null) {
+            return;
+        }
+        route(pack.objHash, pack.objName, pack.objType);
+    }
+
+    /**
+     * 등록된 라우팅 정보. 객체 정보가 아직 AgentManager에 없을 때 사용한다.
+     */
+    public Route get(int objHash) {
+        return currentTable().routes.get(objHash);
+    }
+
+    public Route route(ObjectPack pack) {
+        return route(pack.objHash, pack.objName, pack.objType);
+    }
+
+    private Route route(int objHash, String objName, String objType) {
+        Table t = currentTable();
+        Route route = t.routes.get(objHash);
+        if (route == null || !route.matches(objName, objType)) {
+            route = build(objName, objType);
+            t.routes.put(objHash, route);
+        }
+        return route;
+    }
+
+    private Table currentTable() {
+        Table t = table;
+        Properties property = conf.property;
+        if (t.property != property) {
+            t = table = new Table(property);
+        }
+        return t;
+    }
+
+    private Route build(String objName, String objType) {
+        // 개별 서비스 이름 추출
+        String objectName = objName.substring(objName.lastIndexOf("/") + 1);
+        String hostName = objName.indexOf("/", 1) > 0
+                ? objName.substring(1, objName.indexOf("/", 1))
+                : objName.substring(1);
+
+        List<AlertSink> routeSinks = new ArrayList<AlertSink>(sinks.size());
+        List<AlertDestination> destinations = new ArrayList<AlertDestination>(sinks.size());
+        for (AlertSink sink : sinks) {
+            try {
+                AlertDestination destination = sink.resolve(objType, objectName, hostName);
+                if (destination != null) {
+                    routeSinks.add(sink);
+                    destinations.add(destination);
+                }
+            } catch (Exception e) {
+                Logger.println("[Error] : [" + sink.getName() + "] " + e.getMessage());
+            }
+        }
+        return new Route(objName, objType, objectName, hostName,
+                routeSinks.toArray(new AlertSink[0]), destinations.toArray(new AlertDestination[0]));
+    }
+
+    private static class Table {
+        final Properties property;
+        final IntKeyLinkedMap<Route> routes = new IntKeyLinkedMap<Route>().setMax(MAX_ROUTES);
+
+        Table(Properties property) {
+            this.property = property;
+        }
+    }
+
+    /**
+     * 한 객체의 알림을 전달할 메신저와 목적지 목록 (sinks[i] → destinations[i])
+     */
+    public static final class Route {
+        public final String objName;
+        public final String objType;
+        public final String objectName;
+        public final String hostName;
+        public final AlertSink[] sinks;
+        public final AlertDestination[] destinations;
+
+        Route(String objName, String objType, String objectName, String hostName,
+                AlertSink[] sinks, AlertDestination[] destinations) {
+            this.objName = objName;
+            this.objType = objType;
+            this.objectName = objectName;
+            this.hostName = hostName;
+            this.sinks = sinks;
+            this.destinations = destinations;
+        }
+
+        boolean matches(String objName, String objType) {
+            return this.objName.equals(objName)
+                    && (this.objType == null ? objType == null : this.objType.equals(objType));
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package scouter.plugin.server.alert.slack;
+
+import java.io.IOException;
+
+import scouter.io.DataInputX;
+import scouter.io.DataOutputX;
+
+/**
+ * 알림 전송 채널(메신저)
+ *
+ * 각 sink는 전용 워커 스레드, 큐, 타임아웃을 가지므로(bulkhead) 한 메신저의 지연이나 장애가 다른 메신저의 전송에
+ * 영향을 주지 않는다. 새 메신저는 이 인터페이스를 구현하여 SlackPlugin의 sink 목록에 추가한다.
+ */
+public interface AlertSink {
+
+    /**
+     * sink 이름. 설정 키(ext_plugin_{name}_...)와 Outbox 기록에 사용한다.
+     */
+    String getName();
+
+    /**
+     * 알림을 보낼 목적지를 구한다. 설정된 목적지가 없으면 null을 반환한다.
+     */
+    AlertDestination resolve(String objType, String objectName, String hostName);
+
+    /**
+     * 목적지 큐에 알림을 넣는다. 전송은 sink 전용 워커에서 수행되며 호출한 스레드는 기다리지 않는다.
+     */
+    void enqueue(AlertDestination destination, AlertMessage message);
+
+    /**
+     * Outbox 기록용 목적지 직렬화
+     */
+    void writeDestination(AlertDestination destination, DataOutputX out) throws IOException;
+
+    AlertDestination readDestination(DataInputX in) throws IOException;
+
+    void shutdown();
+}
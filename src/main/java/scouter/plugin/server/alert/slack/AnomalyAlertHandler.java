@@ -0,0 +1,53 @@
+package scouter.plugin.server.alert.slack;
+
+import scouter.lang.AlertLevel;
+import scouter.util.FormatUtil;
+
+/**
+ * 카운터 이상치(기준선 이탈) 알림 처리 핸들러
+ *
+ * 이미 연속 이탈 횟수로 걸러진 결과이므로 처음 감지했을 때 바로 알리고, 이후에는 interval 동안 횟수만 누적한다.
+ */
+public class AnomalyAlertHandler extends AbstractAlertHandler {
+
+    public AnomalyAlertHandler(AlertHistoryStore historyStore) {
+        super(historyStore);
+    }
+
+    @Override
+    protected boolean alertOnFirst(AlertContext context) {
+        return true;
+    }
+
+    @Override
+    protected byte determineAlertLevel(AlertContext context, int historyCount, long diff) {
+        return AlertLevel.WARN;
+    }
+
+    @Override
+    protected String formatAlertMessage(AlertContext context, int historyCount) {
+        return String.format("%s's %s (current : %s)%s",
+                context.objName,
+                context.condition,
+                context.metricFormatted,
+                historyCount > 0 ? " (+" + historyCount + ")" : "");
+    }
+
+    @Override
+    protected String getAlertTitle(AlertContext context, int historyCount) {
+        return "Counter deviates from its baseline.";
+    }
+
+    @Override
+    protected String formatLogMessage(AlertContext context, int historyCount, long diff, String status) {
+        return String.format("%s (%s) : %s (current : %s) => %s%s",
+                context.objName,
+                context.objType,
+                context.condition,
+                context.metricFormatted,
+                status,
+                diff > 0 ? String.format(" (history: %d, diff: %s ms)",
+                        historyCount,
+                        FormatUtil.print(diff, "#,##0")) : "");
+    }
+}
@@ -0,0 +1,253 @@
+package scouter.plugin.server.alert.slack;
+
+/**
+ * (objHash, 카운터)별 지수 가중 이동 평균(EWMA) / 분산 기반 이상치 감지
+ *
+ * 계열마다 키, 평균, 분산, 표본 수, 연속 이탈 횟수, 마지막 표본 시각만 기본형 배열에 보관하므로 슬롯당 24bytes를 사용한다.
+ * (1만 에이전트 x 20 카운터 ≒ 5MB) seasonal 모드에서는 시간대(0~23시)별로 평균, 분산, 표본 수를 따로 유지하므로 약 10배를 사용한다.
+ * 값이 기준선에서 sigma배 이상 벗어난 표본이 연속으로 consecutive번 나오면 이상으로 판단한다.
+ *
+ * idle 시간 동안 표본이 없는 계열(종료되었거나 재배포로 objHash가 바뀐 에이전트)은 주기적으로 제거하여 슬롯을 다시 사용한다.
+ * 최대 계열 수에 도달하면 제거를 앞당겨 시도하고, 그래도 자리가 없으면 새 계열은 감지하지 않는다. ({@link #getOverflowed()})
+ *
+ * 동기화하지 않으므로 평가 파티션마다 하나씩 만들어 사용한다.
+ */
+public class AnomalyDetector {
+    private static final int HOURS = 24;
+    // 최대 계열 수에 도달했을 때 제거를 다시 시도하는 최소 간격
+    private static final long FULL_SWEEP_INTERVAL = 60 * 1000L;
+
+    private final int max;
+    private final int mask;
+    private final int buckets;
+    private final long idleMillis;
+
+    private final long[] keys;
+    private final boolean[] used;
+    private final byte[] streaks;
+    private final float[] means;
+    private final float[] variances;
+    private final short[] samples;
+    private final int[] seen; // 마지막 표본 시각 (sec)
+
+    private int size;
+    private long overflowed;
+    private long removed;
+    private long lastSweep;
+
+    // 마지막으로 이상 판정된 표본의 기준선
+    private float lastMean;
+    private float lastSigma;
+
+    /**
+     * @param max 최대 계열 수
+     * @param seasonal 시간대별 기준선 사용 여부
+     * @param idleMillis 이 시간 동안 표본이 없는 계열은 제거한다.
+     */
+    public AnomalyDetector(int max, boolean seasonal, long idleMillis) {
+        this.max = Math.max(16, max);
+        this.idleMillis = Math.max(FULL_SWEEP_INTERVAL, idleMillis);
+        int capacity = Integer.highestOneBit(this.max + (this.max >> 2) - 1) << 1; // 사용률 80% 이하
+        this.mask = capacity - 1;
+        this.buckets = seasonal ? HOURS : 1;
+        this.keys = new long[capacity];
+        this.used = new boolean[capacity];
+        this.streaks = new byte[capacity];
+        this.means = new float[capacity * buckets];
+        this.variances = new float[capacity * buckets];
+        this.samples = new short[capacity * buckets];
+        this.seen = new int[capacity];
+    }
+
+    /**
+     * 표본을 반영한다. 이상으로 판단되면 z-score(기준선에서 벗어난 sigma 배수)를, 아니면 0을 반환한다.
+     *
+     * @param hour 서버 시간 기준 시(0~23), seasonal 모드에서만 사용
+     * @param now 현재 시각 (ms)
+     */
+    public double update(int objHash, int counter, int hour, double value, Settings settings, long now) {
+        if (now - lastSweep >= idleMillis) {
+            removeIdle(now);
+        }
+        long key = AlertHistoryStore.key(objHash, counter);
+        int i = indexOf(key, now);
+        if (i < 0) {
+            return 0;
+        }
+        seen[i] = (int) (now / 1000L);
+
+        int b = buckets == 1 ? i : i * HOURS + (hour % HOURS);
+        float mean = means[b];
+        float variance = variances[b];
+        int n = samples[b];
+
+        double z = 0;
+        double sample = value;
+        if (n >= settings.minSamples) {
+            // 값이 거의 변하지 않는 카운터(0에 머무는 에러 수 등)가 작은 변화로 수십억 sigma가 되지 않도록 하한을 둔다.
+            double sigma = Math.max(Math.sqrt(variance), Math.max(Math.abs(mean) * 0.01, settings.minSigma));
+            double deviation = value - mean;
+            z = (settings.upOnly ? deviation : Math.abs(deviation)) / sigma;
+            if (z >= settings.sigmas) {
+                if (streaks[i] < Byte.MAX_VALUE) {
+                    streaks[i]++;
+                }
+                // 이탈한 표본은 경계값으로 잘라 반영한다. (기준선이 이상치를 바로 흡수하지 않고 천천히 따라가도록)
+                sample = mean + Math.signum(deviation) * settings.sigmas * sigma;
+            } else {
+                streaks[i] = 0;
+            }
+            lastMean = mean;
+            lastSigma = (float) sigma;
+        }
+
+        // EWMA 평균 / 분산 갱신 (처음에는 단순 평균으로 빠르게 수렴)
+        double alpha = Math.max(settings.alpha, 1.0 / (n + 1));
+        double diff = sample - mean;
+        double incr = alpha * diff;
+        means[b] = (float) (mean + incr);
+        variances[b] = (float) ((1 - alpha) * (variance + diff * incr));
+        if (n < Short.MAX_VALUE) {
+            samples[b] = (short) (n + 1);
+        }
+
+        return streaks[i] >= settings.consecutive ? z : 0;
+    }
+
+    public float getLastMean() {
+        return lastMean;
+    }
+
+    public float getLastSigma() {
+        return lastSigma;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 최대 계열 수를 넘어 추적하지 못한 표본 수 (누적)
+     */
+    public long getOverflowed() {
+        return overflowed;
+    }
+
+    /**
+     * 오래 표본이 없어 제거한 계열 수 (누적)
+     */
+    public long getRemoved() {
+        return removed;
+    }
+
+    /**
+     * idle 시간 동안 표본이 없는 계열을 제거한다. 제거한 계열 수를 반환한다.
+     */
+    public int removeIdle(long now) {
+        lastSweep = now;
+        int limit = (int) ((now - idleMillis) / 1000L);
+        int count = 0;
+        // 뒤로 당겨진 항목을 다시 검사하도록 제거한 자리는 한 번 더 본다.
+        for (int i = 0; i <= mask; i++) {
+            while (used[i] && seen[i] < limit) {
+                removeAt(i);
+                count++;
+            }
+        }
+        removed += count;
+        return count;
+    }
+
+    private static int home(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private int indexOf(long key, long now) {
+        int i = home(key, mask);
+        while (used[i]) {
+            if (keys[i] == key) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        if (size >= max) {
+            if (now - lastSweep < FULL_SWEEP_INTERVAL || removeIdle(now) == 0) {
+                overflowed++;
+                return -1;
+            }
+            // 제거로 항목이 옮겨졌으므로 빈 자리를 다시 찾는다.
+            i = home(key, mask);
+            while (used[i]) {
+                i = (i + 1) & mask;
+            }
+        }
+        used[i] = true;
+        keys[i] = key;
+        streaks[i] = 0;
+        clear(i);
+        size++;
+        return i;
+    }
+
+    private void clear(int i) {
+        int b = i * buckets;
+        for (int k = 0; k < buckets; k++) {
+            means[b + k] = 0;
+            variances[b + k] = 0;
+            samples[b + k] = 0;
+        }
+    }
+
+    /**
+     * linear probing의 검색 경로가 끊기지 않도록 뒤따르는 항목을 앞으로 당긴다. (backward shift deletion)
+     */
+    private void removeAt(int hole) {
+        int j = hole;
+        while (true) {
+            j = (j + 1) & mask;
+            if (!used[j]) {
+                break;
+            }
+            int home = home(keys[j], mask);
+            // home이 (hole, j] 구간 밖이면 hole로 옮겨도 검색 경로가 유지된다.
+            boolean between = hole <= j ? (hole < home && home <= j) : (hole < home || home <= j);
+            if (!between) {
+                keys[hole] = keys[j];
+                streaks[hole] = streaks[j];
+                seen[hole] = seen[j];
+                System.arraycopy(means, j * buckets, means, hole * buckets, buckets);
+                System.arraycopy(variances, j * buckets, variances, hole * buckets, buckets);
+                System.arraycopy(samples, j * buckets, samples, hole * buckets, buckets);
+                hole = j;
+            }
+        }
+        used[hole] = false;
+        size--;
+    }
+
+    /**
+     * 감지 기준 (설정 스냅샷마다 한 번 만든다)
+     */
+    public static final class Settings {
+        public final double alpha;
+        public final double sigmas;
+        public final int consecutive;
+        public final int minSamples;
+        public final boolean upOnly;
+        public final double minSigma;
+
+        /**
+         * @param minSigma sigma 하한 (카운터 단위)
+         */
+        public Settings(double alpha, double sigmas, int consecutive, int minSamples, boolean upOnly,
+                double minSigma) {
+            this.alpha = alpha;
+            this.sigmas = sigmas;
+            this.consecutive = Math.max(1, consecutive);
+            this.minSamples = Math.max(2, minSamples);
+            this.upOnly = upOnly;
+            this.minSigma = minSigma > 0 ? minSigma : 1e-9;
+        }
+    }
+}
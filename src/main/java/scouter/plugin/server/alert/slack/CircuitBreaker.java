@@ -0,0 +1,72 @@
+package scouter.plugin.server.alert.slack;
+
+import scouter.server.Logger;
+
+/**
+ * 목적지별 Circuit Breaker
+ *
+ * 연속 실패가 임계치를 넘으면 OPEN 상태가 되어 일정 시간 동안 전송을 시도하지 않는다.
+ * 시간이 지나면 HALF_OPEN 상태에서 한 건을 시험 전송하고, 성공하면 CLOSED, 실패하면 다시 OPEN 상태가 된다.
+ */
+public class CircuitBreaker {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int failureCount;
+    private long openedAt;
+
+    public CircuitBreaker(String name, int failureThreshold, long openMillis) {
+        this.name = name;
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * 전송 가능하면 0을, OPEN 상태이면 다음 시험 전송까지 남은 시간(ms)을 반환한다.
+     */
+    public synchronized long acquire(long now) {
+        if (state == State.OPEN) {
+            long remain = openedAt + openMillis - now;
+            if (remain > 0) {
+                return remain;
+            }
+            changeState(State.HALF_OPEN);
+        }
+        return 0L;
+    }
+
+    public synchronized void onSuccess() {
+        failureCount = 0;
+        if (state != State.CLOSED) {
+            changeState(State.CLOSED);
+        }
+    }
+
+    public synchronized void onFailure(long now) {
+        failureCount++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && failureCount >= failureThreshold)) {
+            openedAt = now;
+            changeState(State.OPEN);
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized int getFailureCount() {
+        return failureCount;
+    }
+
+    private void changeState(State newState) {
+        Logger.println("[CircuitBreaker] " + name + " : " + state + " -> " + newState
+                + " (failures : " + failureCount + ")");
+        state = newState;
+    }
+}
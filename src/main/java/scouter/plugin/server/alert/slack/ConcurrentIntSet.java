@@ -0,0 +1,71 @@
+package scouter.plugin.server.alert.slack;
+
+import java.util.Arrays;
+
+/**
+ * int 값 집합 (copy-on-write)
+ *
+ * 정렬된 int 배열을 volatile로 공개하므로 조회(contains)와 순회는 잠금 없이 이진 탐색 / 배열 순회로 처리된다.
+ * 추가, 삭제는 드물게 일어난다고 보고 새 배열을 만들어 교체한다. 순회 중에 값이 바뀌어도 순회하는 배열은 변하지 않는다.
+ */
+public final class ConcurrentIntSet {
+    private static final int[] EMPTY = new int[0];
+
+    private volatile int[] values = EMPTY;
+
+    public boolean contains(int value) {
+        return Arrays.binarySearch(values, value) >= 0;
+    }
+
+    /**
+     * 값을 추가한다. 이미 있으면 false
+     */
+    public boolean add(int value) {
+        if (contains(value)) {
+            return false;
+        }
+        synchronized (this) {
+            int[] current = values;
+            int pos = Arrays.binarySearch(current, value);
+            if (pos >= 0) {
+                return false;
+            }
+            int insert = -pos - 1;
+            int[] next = new int[current.length + 1];
+            System.arraycopy(current, 0, next, 0, insert);
+            next[insert] = value;
+            System.arraycopy(current, insert, next, insert + 1, current.length - insert);
+            values = next;
+            return true;
+        }
+    }
+
+    public boolean remove(int value) {
+        if (!contains(value)) {
+            return false;
+        }
+        synchronized (this) {
+            int[] current = values;
+            int pos = Arrays.binarySearch(current, value);
+            if (pos < 0) {
+                return false;
+            }
+            int[] next = new int[current.length - 1];
+            System.arraycopy(current, 0, next, 0, pos);
+            System.arraycopy(current, pos + 1, next, pos, current.length - pos - 1);
+            values = next;
+            return true;
+        }
+    }
+
+    /**
+     * 현재 값들의 스냅샷. 반환된 배열은 변경하지 않는다.
+     */
+    public int[] toArray() {
+        return values;
+    }
+
+    public int size() {
+        return values.length;
+    }
+}
@@ -0,0 +1,47 @@
+package scouter.plugin.server.alert.slack;
+
+import scouter.util.FormatUtil;
+
+/**
+ * 카운터 규칙(ext_plugin_counter_rule) 위반 알림 처리 핸들러
+ *
+ * 레벨은 규칙에 지정된 값을 사용하며, 구간 처리는 다른 카운터 알림과 같다.
+ */
+public class CounterRuleAlertHandler extends AbstractAlertHandler {
+
+    public CounterRuleAlertHandler(AlertHistoryStore historyStore) {
+        super(historyStore);
+    }
+
+    @Override
+    protected byte determineAlertLevel(AlertContext context, int historyCount, long diff) {
+        return context.level;
+    }
+
+    @Override
+    protected String formatAlertMessage(AlertContext context, int historyCount) {
+        return String.format("%s's %s (current : %s)%s",
+                context.objName,
+                context.condition,
+                context.metricFormatted,
+                historyCount > 0 ? " (+" + historyCount + ")" : "");
+    }
+
+    @Override
+    protected String getAlertTitle(AlertContext context, int historyCount) {
+        return "Counter rule violated.";
+    }
+
+    @Override
+    protected String formatLogMessage(AlertContext context, int historyCount, long diff, String status) {
+        return String.format("%s (%s) : %s (current : %s) => %s%s",
+                context.objName,
+                context.objType,
+                context.condition,
+                context.metricFormatted,
+                status,
+                diff > 0 ? String.format(" (history: %d, diff: %s ms)",
+                        historyCount,
+                        FormatUtil.print(diff, "#,##0")) : "");
+    }
+}
@@ -0,0 +1,242 @@
+package scouter.plugin.server.alert.slack;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import scouter.lang.AlertLevel;
+import scouter.lang.pack.PerfCounterPack;
+import scouter.lang.value.MapValue;
+import scouter.lang.value.NumberValue;
+import scouter.lang.value.Value;
+import scouter.server.Logger;
+import scouter.util.FormatUtil;
+import scouter.util.HashUtil;
+
+/**
+ * 카운터 임계값 규칙 (objType별로 컴파일된 규칙 배열)
+ *
+ * 규칙은 ext_plugin_counter_rule.{규칙명}={카운터} {비교} {임계값}[, {interval(분)}[, {레벨}[, {family}]]] 형식이며,
+ * {objType}.ext_plugin_counter_rule.{규칙명} 으로 그룹별로 덮어쓰거나 off로 끌 수 있다.
+ * 설정 스냅샷(GroupConfig)마다 한 번만 컴파일하므로 카운터를 처리할 때 설정을 조회하지 않는다.
+ *
+ * ex)
+ *   ext_plugin_counter_rule.heap=HeapUsed > 1024, 5, WARN
+ *   ext_plugin_counter_rule.cpu=Cpu >= 90, 3, ERROR
+ *   ext_plugin_counter_rule.active=ActiveService > 100, 5, WARN, javaee
+ *   order_jvm.ext_plugin_counter_rule.heap=HeapUsed > 2048, 5, ERROR
+ *   batch_jvm.ext_plugin_counter_rule.cpu=off
+ */
+public final class CounterRuleSet {
+    static final String RULE_KEY = "ext_plugin_counter_rule";
+    static final CounterRuleSet EMPTY = new CounterRuleSet(new Rule[0]);
+
+    private static final int DEFAULT_INTERVAL = 5; // (min)
+    private static final String[] OPERATORS = { ">=", "<=", ">", "<", "==" };
+
+    public final Rule[] rules;
+
+    // 카운터 이름별 규칙 (같은 카운터는 한 번만 읽는다)
+    private final String[] counters;
+    private final Rule[][] rulesByCounter;
+
+    private CounterRuleSet(Rule[] rules) {
+        this.rules = rules;
+        Map<String, List<Rule>> grouped = new LinkedHashMap<String, List<Rule>>();
+        for (Rule rule : rules) {
+            List<Rule> list = grouped.get(rule.counter);
+            if (list == null) {
+                list = new ArrayList<Rule>();
+                grouped.put(rule.counter, list);
+            }
+            list.add(rule);
+        }
+        this.counters = grouped.keySet().toArray(new String[0]);
+        this.rulesByCounter = new Rule[counters.length][];
+        for (int i = 0; i < counters.length; i++) {
+            rulesByCounter[i] = grouped.get(counters[i]).toArray(new Rule[0]);
+        }
+    }
+
+    public boolean isEmpty() {
+        return rules.length == 0;
+    }
+
+    /**
+     * 카운터 값을 규칙과 비교하여 위반한 규칙마다 listener를 호출한다.
+     */
+    public void check(PerfCounterPack pack, Listener listener) {
+        MapValue data = pack.data;
+        for (int i = 0; i < counters.length; i++) {
+            Value value = data.get(counters[i]);
+            if (!(value instanceof NumberValue)) {
+                continue;
+            }
+            double v = ((NumberValue) value).doubleValue();
+            for (Rule rule : rulesByCounter[i]) {
+                if (rule.matches(v)) {
+                    listener.violated(rule, v);
+                }
+            }
+        }
+    }
+
+    /**
+     * id로 규칙을 찾는다. 설정이 바뀌어 없어졌으면 null
+     */
+    public Rule find(int id) {
+        for (Rule rule : rules) {
+            if (rule.id == id) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * objType에 적용할 규칙을 컴파일한다. family가 지정된 규칙은 objType의 family가 같을 때만 포함한다.
+     */
+    static CounterRuleSet compile(Properties property, String objType, String family) {
+        String globalPrefix = RULE_KEY + ".";
+        String groupPrefix = objType + "." + RULE_KEY + ".";
+
+        Map<String, String> specs = new LinkedHashMap<String, String>();
+        for (String key : property.stringPropertyNames()) {
+            if (key.startsWith(globalPrefix)) {
+                specs.putIfAbsent(key.substring(globalPrefix.length()), property.getProperty(key));
+            }
+        }
+        for (String key : property.stringPropertyNames()) {
+            if (key.startsWith(groupPrefix)) {
+                specs.put(key.substring(groupPrefix.length()), property.getProperty(key));
+            }
+        }
+        if (specs.isEmpty()) {
+            return EMPTY;
+        }
+
+        List<Rule> rules = new ArrayList<Rule>();
+        for (Map.Entry<String, String> e : specs.entrySet()) {
+            String spec = e.getValue() == null ? "" : e.getValue().trim();
+            if (spec.isEmpty() || "off".equalsIgnoreCase(spec)) {
+                continue;
+            }
+            try {
+                Rule rule = Rule.parse(e.getKey(), spec);
+                if (rule.family == null || rule.family.equalsIgnoreCase(family)) {
+                    rules.add(rule);
+                }
+            } catch (RuntimeException ex) {
+                Logger.println("[Error] : invalid counter rule " + e.getKey() + "=" + spec + " - " + ex.getMessage());
+            }
+        }
+        return rules.isEmpty() ? EMPTY : new CounterRuleSet(rules.toArray(new Rule[0]));
+    }
+
+    public interface Listener {
+        void violated(Rule rule, double value);
+    }
+
+    public static final class Rule {
+        public final String name;
+        public final int id;
+        public final String counter;
+        public final String operator;
+        public final double threshold;
+        public final int interval;
+        public final byte level;
+        public final String family;
+
+        private Rule(String name, String counter, String operator, double threshold, int interval, byte level,
+                String family) {
+            this.name = name;
+            this.id = HashUtil.hash(name);
+            this.counter = counter;
+            this.operator = operator;
+            this.threshold = threshold;
+            this.interval = interval;
+            this.level = level;
+            this.family = family;
+        }
+
+        boolean matches(double value) {
+            switch (operator) {
+            case ">=":
+                return value >= threshold;
+            case "<=":
+                return value <= threshold;
+            case ">":
+                return value > threshold;
+            case "<":
+                return value < threshold;
+            default:
+                return value == threshold;
+            }
+        }
+
+        /**
+         * "HeapUsed > 1024, 5, WARN, javaee"
+         */
+        static Rule parse(String name, String spec) {
+            String[] parts = spec.split(",");
+            String condition = parts[0].trim();
+
+            String operator = null;
+            int pos = -1;
+            for (String op : OPERATORS) {
+                pos = condition.indexOf(op);
+                if (pos > 0) {
+                    operator = op;
+                    break;
+                }
+            }
+            if (operator == null) {
+                throw new IllegalArgumentException("no comparator");
+            }
+
+            String counter = condition.substring(0, pos).trim();
+            if (!isCounterName(counter)) {
+                throw new IllegalArgumentException("invalid counter name " + counter);
+            }
+            double threshold = Double.parseDouble(condition.substring(pos + operator.length()).trim());
+            int interval = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : DEFAULT_INTERVAL;
+            byte level = parts.length > 2 ? parseLevel(parts[2].trim().toUpperCase()) : AlertLevel.WARN;
+            String family = parts.length > 3 ? parts[3].trim() : null;
+            return new Rule(name, counter, operator, threshold, Math.max(1, interval), level, family);
+        }
+
+        /**
+         * "Cpu => 90"처럼 비교 연산자를 잘못 쓰면 연산자 일부가 카운터 이름에 붙으므로 공백과 비교 문자가 없는지 확인한다.
+         */
+        private static boolean isCounterName(String counter) {
+            if (counter.isEmpty()) {
+                return false;
+            }
+            for (int i = 0; i < counter.length(); i++) {
+                char c = counter.charAt(i);
+                if (Character.isWhitespace(c) || c == '=' || c == '<' || c == '>' || c == '!') {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * AlertLevel.getValue는 모르는 이름에 INFO(0)를 반환하므로 이름이 다시 그대로 나오는지 확인한다.
+         */
+        private static byte parseLevel(String name) {
+            byte level = AlertLevel.getValue(name);
+            if (!name.equals(AlertLevel.getName(level))) {
+                throw new IllegalArgumentException("unknown level " + name);
+            }
+            return level;
+        }
+
+        @Override
+        public String toString() {
+            return counter + " " + operator + " " + FormatUtil.print(threshold, "#,##0.##");
+        }
+    }
+}
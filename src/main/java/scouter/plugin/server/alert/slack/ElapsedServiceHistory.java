@@ -1,8 +0,0 @@
-package scouter.plugin.server.alert.slack;
-
-public class ElapsedServiceHistory extends AlertHistory {
-
-	public ElapsedServiceHistory(long lastModified, int historyCount) {
-		super(lastModified, historyCount);
-	}
-}
\ No newline at end of file
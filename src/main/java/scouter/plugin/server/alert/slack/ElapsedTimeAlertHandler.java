@@ -2,20 +2,14 @@ package scouter.plugin.server.alert.slack;
 
 import scouter.lang.AlertLevel;
 import scouter.util.FormatUtil;
-import scouter.util.LinkedMap;
 
 /**
  * 응답시간 초과 알림 처리 핸들러
  */
 public class ElapsedTimeAlertHandler extends AbstractAlertHandler {
 
-    public ElapsedTimeAlertHandler(LinkedMap<String, AlertHistory> alertHistoryLinkedMap) {
-        super(alertHistoryLinkedMap);
-    }
-
-    @Override
-    protected AlertHistory createHistory(long timestamp) {
-        return new ElapsedServiceHistory(timestamp, 0);
+    public ElapsedTimeAlertHandler(AlertHistoryStore historyStore) {
+        super(historyStore);
     }
 
     @Override
@@ -1,8 +0,0 @@
-package scouter.plugin.server.alert.slack;
-
-public class ErrorHistory extends AlertHistory {
-	public ErrorHistory(long lastModified, int historyCount) {
-		super(lastModified, historyCount);
-	}
-
-}
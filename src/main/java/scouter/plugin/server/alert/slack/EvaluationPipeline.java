@@ -0,0 +1,182 @@
+package scouter.plugin.server.alert.slack;
+
+import scouter.server.Configure;
+import scouter.server.Logger;
+
+/**
+ * XLog, 카운터 평가를 Scouter 수집 스레드에서 분리하여 전용 평가 스레드에서 처리한다.
+ *
+ * 이벤트는 objHash로 파티션을 나누어 파티션별 ring buffer에 기본형 레코드로 넣고 바로 반환한다.
+ * 파티션마다 평가 스레드가 하나씩 있으므로 한 objHash의 이벤트는 항상 같은 스레드에서 순서대로 처리되며,
+ * 파티션 전용 상태(응답시간 히스토그램 등)는 잠금 없이 사용할 수 있다.
+ * ext_plugin_eval_thread_count=0 이면 호출한 스레드에서 바로 평가한다.
+ *
+ * ex)
+ *   ext_plugin_eval_thread_count=2
+ *   ext_plugin_eval_queue_size=65536
+ */
+public class EvaluationPipeline {
+    static final byte XLOG = 1;
+    static final byte GC_TIME = 2;
+    static final byte COUNTER_RULE = 3;
+    static final byte ANOMALY = 4;
+    static final byte THREAD_COUNT = 5;
+    static final byte LATENCY = 6;
+
+    private static final int DRAIN_BATCH = 256;
+    // 비어 있으면 이벤트가 들어올 때 깨어나므로 이 간격은 깨우기를 놓쳤을 때의 안전장치일 뿐이다.
+    private static final long IDLE_PARK_NANOS = 1000000000L; // 1s
+
+    private final Evaluator evaluator;
+    private final EventRing[] rings;
+
+    public EvaluationPipeline(Configure conf, Evaluator evaluator) {
+        this.evaluator = evaluator;
+        int threads = Math.max(0, conf.getInt("ext_plugin_eval_thread_count", 2));
+        int queueSize = conf.getInt("ext_plugin_eval_queue_size", 65536);
+
+        this.rings = new EventRing[threads];
+        for (int p = 0; p < threads; p++) {
+            final int partition = p;
+            final EventRing ring = rings[p] = new EventRing(queueSize);
+            Thread t = new Thread(() -> run(partition, ring), "scouter-alert-eval-" + p);
+            t.setDaemon(true);
+            t.start();
+        }
+    }
+
+    /**
+     * 파티션 수. 평가 스레드가 없으면 1 (호출한 스레드에서 파티션 0으로 평가)
+     */
+    public int getPartitionCount() {
+        return Math.max(1, rings.length);
+    }
+
+    public void offerXLog(int objHash, int service, int elapsed, int error, long endTime) {
+        if (rings.length == 0) {
+            evaluator.xlog(0, objHash, service, elapsed, error, endTime);
+            return;
+        }
+        rings[partition(objHash)].offer(XLOG, objHash, service, elapsed, error, endTime);
+    }
+
+    /**
+     * 백분위 응답시간 기록만 한다. (부하 차단 중 에러 / 응답시간 초과 평가는 집계로 대신함)
+     */
+    public void offerLatency(int objHash, int service, int elapsed, long endTime) {
+        if (rings.length == 0) {
+            evaluator.latency(0, objHash, service, elapsed, endTime);
+            return;
+        }
+        rings[partition(objHash)].offer(LATENCY, objHash, service, elapsed, 0, endTime);
+    }
+
+    public void offerGcTime(int objHash, long gcTime) {
+        if (rings.length == 0) {
+            evaluator.gcTime(0, objHash, gcTime);
+            return;
+        }
+        rings[partition(objHash)].offer(GC_TIME, objHash, 0, 0, 0, gcTime);
+    }
+
+    public void offerThreadCount(int objHash, int threadCount) {
+        if (rings.length == 0) {
+            evaluator.threadCount(0, objHash, threadCount);
+            return;
+        }
+        rings[partition(objHash)].offer(THREAD_COUNT, objHash, threadCount, 0, 0, 0L);
+    }
+
+    /**
+     * 카운터 규칙 위반. 값은 double 비트로 전달한다.
+     */
+    public void offerCounterRule(int objHash, int ruleId, double value) {
+        if (rings.length == 0) {
+            evaluator.counterRule(0, objHash, ruleId, value);
+            return;
+        }
+        rings[partition(objHash)].offer(COUNTER_RULE, objHash, ruleId, 0, 0, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * 이상치 감지 대상 카운터 표본. 값은 double 비트로 전달한다.
+     */
+    public void offerAnomaly(int objHash, int counterId, int hour, double value) {
+        if (rings.length == 0) {
+            evaluator.anomaly(0, objHash, counterId, hour, value);
+            return;
+        }
+        rings[partition(objHash)].offer(ANOMALY, objHash, counterId, hour, 0, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * 아직 평가되지 않은 이벤트 수
+     */
+    public long getBacklog() {
+        long backlog = 0;
+        for (EventRing ring : rings) {
+            backlog += ring.backlog();
+        }
+        return backlog;
+    }
+
+    /**
+     * 큐가 가득 차서 버린 이벤트 수 (누적)
+     */
+    public long getDropped() {
+        long dropped = 0;
+        for (EventRing ring : rings) {
+            dropped += ring.dropped();
+        }
+        return dropped;
+    }
+
+    private int partition(int objHash) {
+        return ((objHash * 0x9E3779B9) >>> 1) % rings.length;
+    }
+
+    private void run(final int partition, EventRing ring) {
+        EventRing.Consumer consumer = (type, objHash, i1, i2, i3, l) -> {
+            if (type == XLOG) {
+                evaluator.xlog(partition, objHash, i1, i2, i3, l);
+            } else if (type == GC_TIME) {
+                evaluator.gcTime(partition, objHash, l);
+            } else if (type == COUNTER_RULE) {
+                evaluator.counterRule(partition, objHash, i1, Double.longBitsToDouble(l));
+            } else if (type == ANOMALY) {
+                evaluator.anomaly(partition, objHash, i1, i2, Double.longBitsToDouble(l));
+            } else if (type == LATENCY) {
+                evaluator.latency(partition, objHash, i1, i2, l);
+            } else if (type == THREAD_COUNT) {
+                evaluator.threadCount(partition, objHash, i1);
+            }
+        };
+
+        while (true) {
+            try {
+                if (ring.drain(consumer, DRAIN_BATCH) == 0) {
+                    ring.await(IDLE_PARK_NANOS);
+                }
+            } catch (Throwable t) {
+                Logger.println("[Error] : evaluation failed - " + t);
+            }
+        }
+    }
+
+    /**
+     * 평가 로직. partition은 0 ~ getPartitionCount()-1 이며 같은 partition은 항상 같은 스레드에서 호출된다.
+     */
+    public interface Evaluator {
+        void xlog(int partition, int objHash, int service, int elapsed, int error, long endTime);
+
+        void latency(int partition, int objHash, int service, int elapsed, long endTime);
+
+        void gcTime(int partition, int objHash, long gcTime);
+
+        void threadCount(int partition, int objHash, int threadCount);
+
+        void counterRule(int partition, int objHash, int ruleId, double value);
+
+        void anomaly(int partition, int objHash, int counterId, int hour, double value);
+    }
+}
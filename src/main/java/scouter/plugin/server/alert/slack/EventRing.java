@@ -0,0 +1,122 @@
+package scouter.plugin.server.alert.slack;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 평가할 이벤트를 기본형 레코드로 보관하는 고정 크기 ring buffer (여러 생산자 / 하나의 소비자)
+ *
+ * 생산자는 CAS로 순번을 얻어 슬롯에 기록한 뒤 슬롯의 순번을 공개하고, 소비자는 공개된 순번까지만 읽는다.
+ * 레코드는 필드별 기본형 배열에 기록하므로 이벤트마다 객체를 만들지 않으며, 가득 차면 기다리지 않고 버린다.
+ * 비어 있으면 소비자는 {@link #await(long)}에서 잠들고, 생산자는 소비자가 잠든 경우에만 깨운다. (생산자는 volatile 읽기 한 번만 추가로 부담)
+ */
+final class EventRing {
+    private final int capacity;
+    private final int mask;
+
+    private final byte[] types;
+    private final int[] objHashes;
+    private final int[] ints1;
+    private final int[] ints2;
+    private final int[] ints3;
+    private final long[] longs;
+    private final AtomicLongArray published;
+
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+    private final AtomicLong dropped = new AtomicLong();
+
+    private Thread consumer;
+    private volatile boolean sleeping;
+
+    EventRing(int size) {
+        this.capacity = Integer.highestOneBit(Math.max(2, size) * 2 - 1);
+        this.mask = capacity - 1;
+        this.types = new byte[capacity];
+        this.objHashes = new int[capacity];
+        this.ints1 = new int[capacity];
+        this.ints2 = new int[capacity];
+        this.ints3 = new int[capacity];
+        this.longs = new long[capacity];
+        this.published = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * 레코드를 추가한다. 가득 찼으면 버리고 false를 반환한다.
+     */
+    boolean offer(byte type, int objHash, int i1, int i2, int i3, long l) {
+        long seq;
+        do {
+            seq = tail.get();
+            if (seq - head >= capacity) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!tail.compareAndSet(seq, seq + 1));
+
+        int i = (int) seq & mask;
+        types[i] = type;
+        objHashes[i] = objHash;
+        ints1[i] = i1;
+        ints2[i] = i2;
+        ints3[i] = i3;
+        longs[i] = l;
+        published.set(i, seq + 1);
+        // published 기록 후 sleeping을 읽으므로, 소비자가 잠들기 전 다시 확인할 때 이 레코드를 보거나 여기서 잠든 소비자를 보게 된다.
+        if (sleeping) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    /**
+     * 공개된 레코드가 없으면 생산자가 깨울 때까지 최대 timeoutNanos 동안 잠든다. 소비자 스레드 하나에서만 호출한다.
+     */
+    void await(long timeoutNanos) {
+        consumer = Thread.currentThread();
+        sleeping = true;
+        try {
+            long h = head;
+            if (published.get((int) h & mask) != h + 1) {
+                LockSupport.parkNanos(this, timeoutNanos);
+            }
+        } finally {
+            sleeping = false;
+        }
+    }
+
+    /**
+     * 공개된 레코드를 최대 max건 꺼내 consumer에 전달한다. 소비자 스레드 하나에서만 호출한다.
+     */
+    int drain(Consumer consumer, int max) {
+        long h = head;
+        int n = 0;
+        try {
+            while (n < max) {
+                int i = (int) h & mask;
+                if (published.get(i) != h + 1) {
+                    break;
+                }
+                h++;
+                n++;
+                consumer.accept(types[i], objHashes[i], ints1[i], ints2[i], ints3[i], longs[i]);
+            }
+        } finally {
+            head = h;
+        }
+        return n;
+    }
+
+    long backlog() {
+        return Math.max(0, tail.get() - head);
+    }
+
+    long dropped() {
+        return dropped.get();
+    }
+
+    interface Consumer {
+        void accept(byte type, int objHash, int i1, int i2, int i3, long l);
+    }
+}
@@ -2,20 +2,14 @@ package scouter.plugin.server.alert.slack;
 
 import scouter.lang.AlertLevel;
 import scouter.util.FormatUtil;
-import scouter.util.LinkedMap;
 
 /**
  * GC 시간 초과 알림 처리 핸들러
  */
 public class GCTimeAlertHandler extends AbstractAlertHandler {
 
-    public GCTimeAlertHandler(LinkedMap<String, AlertHistory> alertHistoryLinkedMap) {
-        super(alertHistoryLinkedMap);
-    }
-
-    @Override
-    protected AlertHistory createHistory(long timestamp) {
-        return new AlertHistory(timestamp, 0);
+    public GCTimeAlertHandler(AlertHistoryStore historyStore) {
+        super(historyStore);
     }
 
     @Override
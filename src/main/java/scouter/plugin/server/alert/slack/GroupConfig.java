@@ -0,0 +1,157 @@
+package scouter.plugin.server.alert.slack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import scouter.server.Configure;
+import scouter.util.HashUtil;
+
+/**
+ * objType(모니터링 그룹)별로 해석된 설정 스냅샷
+ *
+ * 알림 처리 경로에서 자주 읽는 설정을 한 번만 해석하여 필드로 보관한다.
+ * 설정이 변경되면 MonitoringGroupConfigure가 스냅샷을 새로 만들어 교체하므로 이 객체는 변경되지 않는다.
+ * (설정 변경 전에 스냅샷을 읽은 스레드는 진행 중인 처리를 이전 값으로 마친다.)
+ */
+public final class GroupConfig {
+    static final int THREAD_COUNT_INTERVAL = 5; // (min)
+    static final int ERROR_LOG_INTERVAL = 5; // (min)
+    static final int ELAPSED_TIME_INTERVAL = 5; // (min)
+    static final int GC_TIME_INTERVAL = 5; // (min)
+    static final int ELAPSED_PERCENTILE_WINDOW = 5; // (min)
+    static final int ANOMALY_INTERVAL = 10; // (min)
+
+    private static final Object NONE = new Object();
+
+    public final String objType;
+
+    // alert
+    public final boolean sendAlert;
+    public final int level;
+
+    // xlog (전체 설정과 그룹 설정이 모두 켜져 있어야 true)
+    public final boolean xlogEnabled;
+    public final int errorLogInterval;
+    public final int elapsedTimeThreshold;
+    public final int elapsedTimeInterval;
+
+    // 서비스 백분위 응답시간 (서비스별 기준은 LatencyMonitor에서 해석)
+    public final boolean elapsedPercentileEnabled;
+    public final int elapsedPercentile;
+    public final int elapsedPercentileThreshold;
+    public final int elapsedPercentileWindow;
+    public final int elapsedPercentileMinCount;
+
+    // counter
+    public final long gcTimeThreshold;
+    public final int gcTimeInterval;
+    public final int threadCountThreshold;
+    public final int threadCountInterval;
+    public final String threadCountCounter;
+
+    // 카운터 이상치 감지 (감지 대상 카운터가 없으면 꺼짐)
+    public final String[] anomalyCounters;
+    public final int[] anomalyCounterIds;
+    public final AnomalyDetector.Settings anomalySettings;
+    public final int anomalyInterval;
+
+    // 목적지 등 객체 이름별로 해석한 값 (스냅샷과 함께 교체된다)
+    private final ConcurrentHashMap<String, Object> resolved = new ConcurrentHashMap<>();
+    private final Configure conf;
+    private volatile CounterRuleSet counterRules;
+
+    GroupConfig(MonitoringGroupConfigure groupConf, Configure conf, String objType) {
+        this.objType = objType;
+        this.conf = conf;
+
+        this.sendAlert = groupConf.getBoolean("ext_plugin_slack_send_alert", objType, false);
+        this.level = groupConf.getInt("ext_plugin_slack_level", objType, 0);
+
+        this.xlogEnabled = conf.getBoolean("ext_plugin_slack_xlog_enabled", false)
+                && groupConf.getBoolean("ext_plugin_slack_xlog_enabled", objType, true);
+        this.errorLogInterval = conf.getInt("ext_plugin_error_log_interval", ERROR_LOG_INTERVAL);
+        this.elapsedTimeThreshold = groupConf.getInt("ext_plugin_elapsed_time_threshold", objType, 0);
+        this.elapsedTimeInterval = conf.getInt("ext_plugin_elapsed_time_interval", ELAPSED_TIME_INTERVAL);
+
+        this.elapsedPercentileEnabled = groupConf.getBoolean("ext_plugin_elapsed_percentile_enabled", objType, false);
+        this.elapsedPercentile = groupConf.getInt("ext_plugin_elapsed_percentile", objType, 95);
+        this.elapsedPercentileThreshold = groupConf.getInt("ext_plugin_elapsed_percentile_threshold", objType, 0);
+        this.elapsedPercentileWindow = Math.max(1,
+                conf.getInt("ext_plugin_elapsed_percentile_window", ELAPSED_PERCENTILE_WINDOW));
+        this.elapsedPercentileMinCount = conf.getInt("ext_plugin_elapsed_percentile_min_count", 100);
+
+        this.gcTimeThreshold = groupConf.getLong("ext_plugin_gc_time_threshold", objType, 0);
+        this.gcTimeInterval = conf.getInt("ext_plugin_gc_time_interval", GC_TIME_INTERVAL);
+        this.threadCountThreshold = groupConf.getInt("ext_plugin_thread_count_threshold", objType, 0);
+        this.threadCountInterval = conf.getInt("ext_plugin_thread_count_interval", THREAD_COUNT_INTERVAL);
+        this.threadCountCounter = groupConf.getValue("ext_plugin_thread_count_counter", objType, "").trim();
+
+        this.anomalyCounters = parseList(groupConf.getValue("ext_plugin_anomaly_counters", objType, ""));
+        this.anomalyCounterIds = new int[anomalyCounters.length];
+        for (int i = 0; i < anomalyCounters.length; i++) {
+            anomalyCounterIds[i] = HashUtil.hash(anomalyCounters[i]);
+        }
+        this.anomalySettings = new AnomalyDetector.Settings(
+                groupConf.getDouble("ext_plugin_anomaly_alpha", objType, 0.05),
+                groupConf.getDouble("ext_plugin_anomaly_sigma", objType, 3),
+                groupConf.getInt("ext_plugin_anomaly_consecutive", objType, 3),
+                groupConf.getInt("ext_plugin_anomaly_min_samples", objType, 30),
+                !"both".equalsIgnoreCase(groupConf.getValue("ext_plugin_anomaly_direction", objType, "up")),
+                groupConf.getDouble("ext_plugin_anomaly_min_sigma", objType, 1));
+        this.anomalyInterval = conf.getInt("ext_plugin_anomaly_interval", ANOMALY_INTERVAL);
+    }
+
+    /**
+     * 이 objType에 적용할 카운터 규칙 (스냅샷마다 한 번 컴파일)
+     */
+    public CounterRuleSet getCounterRules() {
+        CounterRuleSet rules = counterRules;
+        if (rules == null) {
+            rules = counterRules = CounterRuleSet.compile(conf.property, objType, AgentInfoCache.getFamily(objType));
+        }
+        return rules;
+    }
+
+    /**
+     * 이상치 감지 대상 카운터 이름. 설정이 바뀌어 없어졌으면 null
+     */
+    public String getAnomalyCounter(int counterId) {
+        for (int i = 0; i < anomalyCounterIds.length; i++) {
+            if (anomalyCounterIds[i] == counterId) {
+                return anomalyCounters[i];
+            }
+        }
+        return null;
+    }
+
+    private static String[] parseList(String value) {
+        List<String> list = new ArrayList<String>();
+        if ("off".equalsIgnoreCase(value.trim())) {
+            return new String[0];
+        }
+        for (String item : value.split(",")) {
+            if (!item.trim().isEmpty()) {
+                list.add(item.trim());
+            }
+        }
+        return list.toArray(new String[0]);
+    }
+
+    /**
+     * key에 대해 한 번만 해석한 값을 반환한다. resolver가 null을 반환하면 null도 기억한다.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T resolve(String key, Function<String, T> resolver) {
+        Object value = resolved.get(key);
+        if (value == null) {
+            T result = resolver.apply(key);
+            value = resolved.putIfAbsent(key, result == null ? NONE : result);
+            if (value == null) {
+                return result;
+            }
+        }
+        return value == NONE ? null : (T) value;
+    }
+}
@@ -0,0 +1,133 @@
+package scouter.plugin.server.alert.slack;
+
+import java.util.Arrays;
+
+/**
+ * 응답시간 분포를 구간(slot)별로 기록하는 로그 버킷 히스토그램 (HDR histogram 방식)
+ *
+ * 값은 2의 거듭제곱 구간마다 8개의 하위 버킷으로 나누어 기록하므로 상대 오차는 12.5% 이내이며,
+ * 약 35분(2^21 ms)까지 152개 버킷으로 표현한다. 구간은 고정 개수의 ring slot에 보관하고, 시간이 지나면 가장 오래된 slot을 비워 재사용한다.
+ * 기록은 배열 인덱스 계산과 증가뿐이며 객체를 만들지 않는다.
+ *
+ * 동기화하지 않으므로 한 objHash의 XLog를 처리하는 한 스레드에서만 사용한다.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 20;
+    static final int MAX_VALUE = (1 << (MAX_EXPONENT + 1)) - 1;
+    static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private final long slotMillis;
+    private final int[][] counts;
+    private final long[] epochs;
+    private long currentEpoch = -1;
+
+    /**
+     * @param windowSlots 평가 구간을 이루는 slot 수 (현재 기록 중인 slot은 제외)
+     * @param slotMillis slot 하나의 길이 (ms)
+     */
+    public LatencyHistogram(int windowSlots, long slotMillis) {
+        int slots = Math.max(1, windowSlots) + 1;
+        this.slotMillis = slotMillis;
+        this.counts = new int[slots][BUCKETS];
+        this.epochs = new long[slots];
+        Arrays.fill(epochs, -1);
+    }
+
+    /**
+     * 응답시간을 기록한다. 새 slot으로 넘어가서 직전까지의 구간이 완성되었으면 true를 반환한다.
+     */
+    public boolean record(long time, int elapsed) {
+        long epoch = time / slotMillis;
+        boolean rotated = false;
+        if (epoch > currentEpoch) {
+            rotated = currentEpoch >= 0;
+            currentEpoch = epoch;
+        } else if (epoch <= currentEpoch - counts.length) {
+            // 구간을 벗어난 늦은 XLog
+            return false;
+        }
+
+        int slot = (int) (epoch % counts.length);
+        if (epochs[slot] != epoch) {
+            Arrays.fill(counts[slot], 0);
+            epochs[slot] = epoch;
+        }
+        counts[slot][bucket(elapsed)]++;
+        return rotated;
+    }
+
+    /**
+     * 현재 slot을 제외한 구간의 건수
+     */
+    public int count() {
+        long total = 0;
+        for (int s = 0; s < counts.length; s++) {
+            if (inWindow(s)) {
+                int[] c = counts[s];
+                for (int i = 0; i < BUCKETS; i++) {
+                    total += c[i];
+                }
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, total);
+    }
+
+    /**
+     * 현재 slot을 제외한 구간의 백분위 응답시간(ms). 버킷의 상한값을 반환하며, 기록이 없으면 0
+     */
+    public int percentile(double percentile) {
+        long[] merged = new long[BUCKETS];
+        long total = 0;
+        for (int s = 0; s < counts.length; s++) {
+            if (inWindow(s)) {
+                int[] c = counts[s];
+                for (int i = 0; i < BUCKETS; i++) {
+                    merged[i] += c[i];
+                    total += c[i];
+                }
+            }
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += merged[i];
+            if (seen >= rank) {
+                return highestEquivalentValue(i);
+            }
+        }
+        return MAX_VALUE;
+    }
+
+    private boolean inWindow(int slot) {
+        long epoch = epochs[slot];
+        return epoch >= 0 && epoch < currentEpoch && epoch > currentEpoch - counts.length;
+    }
+
+    static int bucket(int value) {
+        if (value < SUB_BUCKETS) {
+            return Math.max(0, value);
+        }
+        if (value > MAX_VALUE) {
+            value = MAX_VALUE;
+        }
+        int exponent = 31 - Integer.numberOfLeadingZeros(value);
+        int sub = (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    static int highestEquivalentValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int sub = bucket % SUB_BUCKETS;
+        int shift = exponent - SUB_BUCKET_BITS;
+        return ((SUB_BUCKETS + sub) << shift) + (1 << shift) - 1;
+    }
+}
@@ -0,0 +1,115 @@
+package scouter.plugin.server.alert.slack;
+
+import scouter.util.DateUtil;
+import scouter.util.LongKeyLinkedMap;
+
+/**
+ * (objHash, 서비스)별 응답시간 히스토그램을 유지하고, 구간이 끝날 때마다 백분위 응답시간을 서비스별 기준과 비교한다.
+ *
+ * 서비스 이름과 기준값은 히스토그램을 만들 때(또는 설정이 변경된 뒤 첫 평가 시) 한 번만 해석한다.
+ * 추적하는 서비스 수는 ext_plugin_elapsed_percentile_max_services로 제한하며, 넘으면 오래된 것부터 제거한다.
+ * 동기화하지 않으므로 평가 파티션마다 하나씩 만들어 사용한다.
+ *
+ * ex)
+ *   ext_plugin_elapsed_percentile_enabled=true
+ *   ext_plugin_elapsed_percentile=95
+ *   ext_plugin_elapsed_percentile_threshold=1000
+ *   ext_plugin_elapsed_percentile_threshold./order/checkout.do=3000
+ *   ext_plugin_elapsed_percentile./order/*=99
+ */
+public class LatencyMonitor {
+    private static final long SLOT_MILLIS = 60 * 1000L;
+
+    private final MonitoringGroupConfigure groupConf;
+    private final LongKeyLinkedMap<ServiceLatency> services;
+
+    public LatencyMonitor(MonitoringGroupConfigure groupConf, int maxServices) {
+        this.groupConf = groupConf;
+        this.services = new LongKeyLinkedMap<ServiceLatency>().setMax(Math.max(1, maxServices));
+    }
+
+    /**
+     * XLog의 응답시간을 기록한다. 평가 구간이 끝났고 백분위 응답시간이 기준을 넘었으면 해당 서비스를 반환한다.
+     */
+    public ServiceLatency record(int objHash, int service, int elapsed, long endTime, GroupConfig config) {
+        long key = AlertHistoryStore.key(objHash, service);
+        ServiceLatency latency = services.get(key);
+        if (latency == null || latency.windowMinutes != config.elapsedPercentileWindow) {
+            latency = new ServiceLatency(objHash, service, config.elapsedPercentileWindow,
+                    TextCache.getInstance().getService(DateUtil.yyyymmdd(endTime), service));
+            services.put(key, latency);
+        }
+
+        if (!latency.histogram.record(endTime, elapsed)) {
+            return null;
+        }
+
+        if (latency.config != config) {
+            resolveRule(latency, config);
+        }
+        if (latency.threshold <= 0) {
+            return null;
+        }
+
+        int count = latency.histogram.count();
+        if (count < config.elapsedPercentileMinCount) {
+            return null;
+        }
+        latency.count = count;
+        latency.value = latency.histogram.percentile(latency.percentile);
+        return latency.value > latency.threshold ? latency : null;
+    }
+
+    private void resolveRule(ServiceLatency latency, GroupConfig config) {
+        latency.config = config;
+        latency.percentile = percentileOf(groupConf, latency.serviceName, config);
+        latency.threshold = toInt(groupConf.getValueByName("ext_plugin_elapsed_percentile_threshold", config.objType,
+                latency.serviceName, null), config.elapsedPercentileThreshold);
+    }
+
+    /**
+     * 서비스에 적용되는 백분위 (서비스 이름 규칙이 없으면 그룹 설정값)
+     */
+    public static int percentileOf(MonitoringGroupConfigure groupConf, String serviceName, GroupConfig config) {
+        return toInt(groupConf.getValueByName("ext_plugin_elapsed_percentile", config.objType, serviceName, null),
+                config.elapsedPercentile);
+    }
+
+    private static int toInt(String value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 한 서비스의 히스토그램과 적용 중인 기준
+     */
+    public static final class ServiceLatency {
+        public final int objHash;
+        public final int service;
+        public final String serviceName;
+        final int windowMinutes;
+        final LatencyHistogram histogram;
+
+        GroupConfig config;
+        public int percentile;
+        public int threshold;
+
+        // 마지막 평가 결과
+        public int value;
+        public int count;
+
+        ServiceLatency(int objHash, int service, int windowMinutes, String serviceName) {
+            this.objHash = objHash;
+            this.service = service;
+            this.serviceName = serviceName;
+            this.windowMinutes = windowMinutes;
+            this.histogram = new LatencyHistogram(windowMinutes, SLOT_MILLIS);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package scouter.plugin.server.alert.slack;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import scouter.server.Configure;
+import scouter.server.Logger;
+
+/**
+ * XLog 평가량이 급증할 때 건별 평가를 멈추고 집계만 하는 부하 차단기
+ *
+ * 에러 / 응답시간 초과 이벤트 수를 초 단위로 세어 ext_plugin_shed_rate_limit를 넘거나 평가 큐가 절반 이상 차 있으면 집계 모드로 전환한다.
+ * 집계 모드에서는 (objHash, 서비스)별 에러 / 응답시간 초과 건수만 기본형 배열에 누적하고,
+ * 주기적으로 {@link #drain()}으로 꺼내 objHash별 요약 알림 한 건으로 보낸다.
+ * 초당 이벤트 수가 기준의 절반 아래로 내려가면 자동으로 건별 평가로 돌아온다.
+ *
+ * ex)
+ *   ext_plugin_shed_rate_limit=10000
+ *   ext_plugin_shed_summary_interval=60
+ */
+public class LoadShedder {
+    private static final int TABLE_SIZE = 4096; // 2의 거듭제곱
+    private static final int MAX_ENTRIES = TABLE_SIZE / 2;
+
+    private final Configure conf;
+    private final LongSupplier backlog;
+    private final long backlogLimit;
+
+    private final AtomicLong second = new AtomicLong();
+    private final AtomicInteger count = new AtomicInteger();
+    private volatile boolean shedding;
+
+    // 집계 테이블 (open addressing, 잠금 안에서만 접근)
+    private long[] keys = new long[TABLE_SIZE];
+    private boolean[] used = new boolean[TABLE_SIZE];
+    private int[] errors = new int[TABLE_SIZE];
+    private int[] slows = new int[TABLE_SIZE];
+    private int[] maxElapsed = new int[TABLE_SIZE];
+    private int size;
+    private long overflowed;
+
+    public LoadShedder(Configure conf, LongSupplier backlog, long backlogLimit) {
+        this.conf = conf;
+        this.backlog = backlog;
+        this.backlogLimit = backlogLimit;
+    }
+
+    /**
+     * 이벤트 한 건을 건별 평가해도 되는지 확인한다. 집계 모드이면 false
+     */
+    public boolean admit(long now) {
+        int limit = conf.getInt("ext_plugin_shed_rate_limit", 10000);
+        if (limit <= 0) {
+            return true;
+        }
+
+        long sec = now / 1000;
+        long prev = second.get();
+        if (sec != prev && second.compareAndSet(prev, sec)) {
+            int last = count.getAndSet(0);
+            if (sec != prev + 1) {
+                last = 0; // 1초 이상 이벤트가 없었음
+            }
+            if (shedding && last < limit / 2 && backlog.getAsLong() < backlogLimit / 2) {
+                shedding = false;
+                Logger.println("[SlackPlugin] load shedding off - " + last + " events/s");
+            } else if (!shedding && backlog.getAsLong() > backlogLimit) {
+                shedding = true;
+                Logger.println("[SlackPlugin] load shedding on - evaluation backlog " + backlog.getAsLong());
+            }
+        }
+
+        if (count.incrementAndGet() > limit && !shedding) {
+            shedding = true;
+            Logger.println("[SlackPlugin] load shedding on - more than " + limit + " events/s");
+        }
+        return !shedding;
+    }
+
+    public boolean isShedding() {
+        return shedding;
+    }
+
+    /**
+     * 집계 모드에서 에러 / 응답시간 초과 건수를 누적한다.
+     */
+    public synchronized void aggregate(int objHash, int service, boolean error, boolean slow, int elapsed) {
+        if (!error && !slow) {
+            return;
+        }
+        long key = AlertHistoryStore.key(objHash, service);
+        int i = indexFor(key);
+        if (!used[i]) {
+            if (size >= MAX_ENTRIES) {
+                overflowed++;
+                return;
+            }
+            used[i] = true;
+            keys[i] = key;
+            size++;
+        }
+        if (error) {
+            errors[i]++;
+        }
+        if (slow) {
+            slows[i]++;
+            if (elapsed > maxElapsed[i]) {
+                maxElapsed[i] = elapsed;
+            }
+        }
+    }
+
+    /**
+     * 누적된 집계를 꺼내고 비운다.
+     */
+    public Summary drain() {
+        long[] k;
+        boolean[] u;
+        int[] e;
+        int[] s;
+        int[] m;
+        long o;
+        synchronized (this) {
+            if (size == 0 && overflowed == 0) {
+                return null;
+            }
+            k = keys;
+            u = used;
+            e = errors;
+            s = slows;
+            m = maxElapsed;
+            o = overflowed;
+            keys = new long[TABLE_SIZE];
+            used = new boolean[TABLE_SIZE];
+            errors = new int[TABLE_SIZE];
+            slows = new int[TABLE_SIZE];
+            maxElapsed = new int[TABLE_SIZE];
+            size = 0;
+            overflowed = 0;
+        }
+        return new Summary(k, u, e, s, m, o);
+    }
+
+    private int indexFor(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        int i = (int) (h ^ (h >>> 32)) & (TABLE_SIZE - 1);
+        while (used[i] && keys[i] != key) {
+            i = (i + 1) & (TABLE_SIZE - 1);
+        }
+        return i;
+    }
+
+    /**
+     * 한 주기 동안의 집계. used[i]인 슬롯만 유효하며, keys[i]의 상위 32bit는 objHash, 하위 32bit는 서비스 hash이다.
+     */
+    public static final class Summary {
+        public final long[] keys;
+        public final boolean[] used;
+        public final int[] errors;
+        public final int[] slows;
+        public final int[] maxElapsed;
+        public final long overflowed;
+
+        Summary(long[] keys, boolean[] used, int[] errors, int[] slows, int[] maxElapsed, long overflowed) {
+            this.keys = keys;
+            this.used = used;
+            this.errors = errors;
+            this.slows = slows;
+            this.maxElapsed = maxElapsed;
+            this.overflowed = overflowed;
+        }
+    }
+}
@@ -17,7 +17,14 @@
  */
 package scouter.plugin.server.alert.slack;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+import scouter.lang.pack.ObjectPack;
 import scouter.server.Configure;
+import scouter.server.core.AgentManager;
 
 /**
  * <p>a class that helps to find a property value which matches to a specific monitoring_group_type key(aks obj_type).
@@ -34,12 +41,90 @@ import scouter.server.Configure;
  *
  */
 public class MonitoringGroupConfigure {
+	// objHash별로 기억하는 최대 객체 수. 넘으면 기억하지 않고 매번 조회한다.
+	private static final int MAX_OBJECTS = 10000;
+
 	private Configure conf;
+	private volatile Snapshots snapshots = new Snapshots(null);
 
 	public MonitoringGroupConfigure(Configure config) {
 		this.conf = config;
 	}
 
+	/**
+	 * objType의 설정 스냅샷. 처음 요청될 때 만들어지고 설정이 변경될 때까지 재사용된다.
+	 * Scouter는 설정 파일이 바뀌면 새 Properties 객체로 교체하므로 참조 비교만으로 변경을 감지한다.
+	 */
+	public GroupConfig getGroupConfig(String objType) {
+		Snapshots current = snapshots;
+		if (current.property != conf.property) {
+			current = snapshots = new Snapshots(conf.property);
+		}
+
+		String key = String.valueOf(objType);
+		GroupConfig config = current.configs.get(key);
+		if (config == null) {
+			config = new GroupConfig(this, conf, objType);
+			GroupConfig prev = current.configs.putIfAbsent(key, config);
+			if (prev != null) {
+				config = prev;
+			}
+		}
+		return config;
+	}
+
+	/**
+	 * objHash에 해당하는 객체의 설정 스냅샷. XLog처럼 호출이 많은 경로에서 객체 조회와 문자열 키 생성 없이 사용한다.
+	 * 아직 등록되지 않은 객체는 "scouter" 그룹 설정을 반환하며 기억하지 않는다.
+	 * 조회는 잠금 없이 처리되며, objType이 바뀌거나 비활성화된 객체는 object()에서 {@link #invalidate(ObjectPack)}로 제거한다.
+	 */
+	public GroupConfig getGroupConfig(int objHash) {
+		Snapshots current = snapshots;
+		if (current.property != conf.property) {
+			current = snapshots = new Snapshots(conf.property);
+		}
+
+		GroupConfig config = current.objects.get(objHash);
+		if (config == null) {
+			ObjectPack objectPack = AgentManager.getAgent(objHash);
+			if (objectPack == null) {
+				return getGroupConfig("scouter");
+			}
+			config = getGroupConfig(objectPack.objType);
+			if (current.objects.size() < MAX_OBJECTS) {
+				current.objects.put(objHash, config);
+			}
+		}
+		return config;
+	}
+
+	/**
+	 * 객체의 objType이 바뀌었거나 비활성화되었으면 objHash로 기억한 설정을 제거한다.
+	 */
+	public void invalidate(ObjectPack pack) {
+		if (pack == null) {
+			return;
+		}
+		Snapshots current = snapshots;
+		GroupConfig config = current.objects.get(pack.objHash);
+		if (config == null) {
+			return;
+		}
+		if (!pack.alive || (pack.objType != null && !pack.objType.equals(config.objType))) {
+			current.objects.remove(pack.objHash, config);
+		}
+	}
+
+	private static class Snapshots {
+		final Properties property;
+		final ConcurrentHashMap<String, GroupConfig> configs = new ConcurrentHashMap<String, GroupConfig>();
+		final ConcurrentHashMap<Integer, GroupConfig> objects = new ConcurrentHashMap<Integer, GroupConfig>();
+
+		Snapshots(Properties property) {
+			this.property = property;
+		}
+	}
+
 	public String getValue(String key, String objType) {
 		return this.getValue(key, objType, null);
 	}
@@ -63,6 +148,64 @@ public class MonitoringGroupConfigure {
 		return value != null? value : defaultValue;
 	}
 
+	/**
+	 * key.{name} 형태의 이름(서비스명, 호스트명)별 설정값.
+	 * 정확히 일치하는 이름(그룹 → 전체 설정 순)이 우선하며, 없으면 key.{prefix}* 규칙 중 가장 긴 접두어가 일치하는 값을 사용한다.
+	 * 
+	 * ex)
+	 *   ext_plugin_works_channel_id.order-api-01=channel-a
+	 *   ext_plugin_works_channel_id.order-*=channel-b
+	 *   order_jvm.ext_plugin_works_channel_id.order-batch-*=channel-c
+	 */
+	public String getValueByName(String key, String objType, String name, String defaultValue) {
+		String value = getValue(key + "." + name, objType, null);
+		if (value != null) {
+			return value;
+		}
+
+		final String ruleKey = key;
+		final String ruleObjType = objType;
+		PrefixTrie<String> rules = getGroupConfig(objType).resolve("prefix|" + key,
+				k -> compilePrefixRules(ruleKey, ruleObjType));
+		value = rules.longestMatch(name);
+		return value != null ? value : defaultValue;
+	}
+
+	/**
+	 * key.{prefix}* 규칙을 trie로 만든다. 같은 접두어는 그룹 설정이 전체 설정보다 우선한다.
+	 */
+	private PrefixTrie<String> compilePrefixRules(String key, String objType) {
+		String globalPrefix = key + ".";
+		String groupPrefix = getGroupKey(key, objType) + ".";
+		Map<String, String> global = new HashMap<String, String>();
+		Map<String, String> group = new HashMap<String, String>();
+
+		Properties property = conf.property;
+		for (String name : property.stringPropertyNames()) {
+			if (!name.endsWith("*")) {
+				continue;
+			}
+			String value = property.getProperty(name);
+			if (value == null || value.trim().length() == 0) {
+				continue;
+			}
+			if (name.startsWith(groupPrefix)) {
+				group.put(name.substring(groupPrefix.length(), name.length() - 1), value);
+			} else if (name.startsWith(globalPrefix)) {
+				global.put(name.substring(globalPrefix.length(), name.length() - 1), value);
+			}
+		}
+
+		PrefixTrie<String> trie = new PrefixTrie<String>();
+		for (Map.Entry<String, String> e : global.entrySet()) {
+			trie.put(e.getKey(), e.getValue());
+		}
+		for (Map.Entry<String, String> e : group.entrySet()) {
+			trie.put(e.getKey(), e.getValue());
+		}
+		return trie;
+	}
+
 	public Boolean getBoolean(String key, final String objType, Boolean defaultValue) {
 		String groupKey = getGroupKey(key, objType);
 		Boolean value = toBoolean(conf.getValue(groupKey));
@@ -96,7 +239,29 @@ public class MonitoringGroupConfigure {
 		return value != null ? value : defaultValue;
 	}
 
+	public double getDouble(String key, String objType, double defaultValue) {
+		String groupKey = getGroupKey(key, objType);
+		Double value = toDouble(conf.getValue(groupKey));
+		if (value != null) {
+			return value;
+		}
+		// default key value
+		value = toDouble(conf.getValue(key));
+		return value != null ? value : defaultValue;
+	}
+
 	
+	private Double toDouble(String value) {
+		try {
+			if (value != null) {
+				return Double.parseDouble(value);
+			}
+		} catch (Exception e) {
+			// ignore exception
+		}
+		return null;
+	}
+
 	private Long toLong(String value) {
 		try {
 			if (value != null) {
@@ -0,0 +1,56 @@
+package scouter.plugin.server.alert.slack;
+
+import scouter.lang.AlertLevel;
+import scouter.util.FormatUtil;
+
+/**
+ * 서비스 백분위 응답시간 초과 알림 처리 핸들러
+ *
+ * 백분위 값은 이미 구간 단위로 집계된 값이므로 처음 초과했을 때 바로 알리고, 이후에는 interval 동안 횟수만 누적한다.
+ */
+public class PercentileAlertHandler extends AbstractAlertHandler {
+
+    public PercentileAlertHandler(AlertHistoryStore historyStore) {
+        super(historyStore);
+    }
+
+    @Override
+    protected boolean alertOnFirst(AlertContext context) {
+        return true;
+    }
+
+    @Override
+    protected byte determineAlertLevel(AlertContext context, int historyCount, long diff) {
+        long value = Long.parseLong(context.metricValue);
+        return value > context.threshold * 2L ? AlertLevel.FATAL : AlertLevel.WARN;
+    }
+
+    @Override
+    protected String formatAlertMessage(AlertContext context, int historyCount) {
+        return String.format("(%s) p%d elapsed time(%s ms) exceed a threshold(%s ms)%s",
+                context.serviceName,
+                context.percentile,
+                context.metricFormatted,
+                FormatUtil.print(context.threshold, "#,##0"),
+                historyCount > 0 ? " (+" + historyCount + ")" : "");
+    }
+
+    @Override
+    protected String getAlertTitle(AlertContext context, int historyCount) {
+        return "p" + context.percentile + " elapsed time exceed a threshold.";
+    }
+
+    @Override
+    protected String formatLogMessage(AlertContext context, int historyCount, long diff, String status) {
+        return String.format("%s(%s) p%d elapsed (%s) %s (%s ms)%s",
+                context.objName,
+                context.objType,
+                context.percentile,
+                context.serviceName,
+                status,
+                context.metricFormatted,
+                diff > 0 ? String.format(" (history: %d, diff: %s ms)",
+                        historyCount,
+                        FormatUtil.print(diff, "#,##0")) : "");
+    }
+}
@@ -0,0 +1,54 @@
+package scouter.plugin.server.alert.slack;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 접두어(prefix) 규칙 검색용 trie
+ *
+ * "web-*" 와 같이 '*'로 끝나는 규칙을 등록하고, 이름과 일치하는 가장 긴 접두어의 값을 찾는다.
+ * 검색 비용은 규칙 수와 관계없이 이름 길이(깊이)에 비례한다. 생성 후에는 변경하지 않으므로 여러 스레드에서 읽을 수 있다.
+ */
+public class PrefixTrie<V> {
+    private final Node<V> root = new Node<V>();
+
+    public void put(String prefix, V value) {
+        Node<V> node = root;
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            Node<V> next = node.children.get(c);
+            if (next == null) {
+                next = new Node<V>();
+                node.children.put(c, next);
+            }
+            node = next;
+        }
+        node.value = value;
+    }
+
+    /**
+     * name과 일치하는 가장 긴 접두어의 값. 없으면 null을 반환한다.
+     */
+    public V longestMatch(String name) {
+        if (name == null) {
+            return null;
+        }
+        Node<V> node = root;
+        V found = node.value;
+        for (int i = 0; i < name.length(); i++) {
+            node = node.children.get(name.charAt(i));
+            if (node == null) {
+                break;
+            }
+            if (node.value != null) {
+                found = node.value;
+            }
+        }
+        return found;
+    }
+
+    private static class Node<V> {
+        final Map<Character, Node<V>> children = new HashMap<Character, Node<V>>(4);
+        V value;
+    }
+}
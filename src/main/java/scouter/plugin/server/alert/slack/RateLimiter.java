@@ -0,0 +1,128 @@
+package scouter.plugin.server.alert.slack;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import scouter.server.Configure;
+
+/**
+ * 전송량 제한 (Token Bucket)
+ *
+ * Slack Webhook은 초당 1건 정도로 제한되므로 Webhook URL별로(채널이 달라도 하나의 버킷) 전송 속도를 맞추고,
+ * 429 응답의 Retry-After 동안에는 해당 Webhook의 전송만 멈춘다. 버킷 키는 {@link AlertDestination#getRateKey()}이다.
+ *
+ * ex)
+ *   ext_plugin_slack_rate_per_sec=1
+ *   ext_plugin_slack_rate_burst=3
+ *   ext_plugin_works_rate_per_sec=5
+ *   ext_plugin_works_rate_burst=5
+ */
+public class RateLimiter {
+
+    private final Configure conf = Configure.getInstance();
+    private final ConcurrentHashMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private final AtomicLong delayedCount = new AtomicLong();
+    private final AtomicLong delayedMillis = new AtomicLong();
+    private final AtomicLong maxDelayedMillis = new AtomicLong();
+
+    /**
+     * 전송 가능하면 토큰을 하나 사용하고 0을, 아니면 다시 시도할 때까지 기다려야 할 시간(ms)을 반환한다.
+     */
+    public long reserve(String destination) {
+        return bucket(destination).reserve(System.nanoTime());
+    }
+
+    /**
+     * 429 응답의 Retry-After 동안 목적지 전송을 멈춘다.
+     */
+    public void pause(String destination, long millis) {
+        bucket(destination).pause(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    /**
+     * 전송량 제한으로 지연되었던 알림이 전송되었을 때 대기 시간을 기록한다.
+     */
+    public void recordDelay(long millis) {
+        delayedCount.incrementAndGet();
+        delayedMillis.addAndGet(millis);
+        maxDelayedMillis.accumulateAndGet(millis, Math::max);
+    }
+
+    public long getDelayedCount() {
+        return delayedCount.get();
+    }
+
+    public long getDelayedMillis() {
+        return delayedMillis.get();
+    }
+
+    public long getMaxDelayedMillis() {
+        return maxDelayedMillis.get();
+    }
+
+    private Bucket bucket(String destination) {
+        Bucket bucket = buckets.get(destination);
+        if (bucket == null) {
+            String prefix = destination.startsWith("works|") ? "ext_plugin_works_rate" : "ext_plugin_slack_rate";
+            double ratePerSec = toDouble(conf.getValue(prefix + "_per_sec"), destination.startsWith("works|") ? 5 : 1);
+            int burst = conf.getInt(prefix + "_burst", destination.startsWith("works|") ? 5 : 3);
+            bucket = buckets.computeIfAbsent(destination, k -> new Bucket(ratePerSec, burst));
+        }
+        return bucket;
+    }
+
+    private static double toDouble(String value, double defaultValue) {
+        try {
+            if (value != null) {
+                return Double.parseDouble(value.trim());
+            }
+        } catch (Exception e) {
+            // ignore exception
+        }
+        return defaultValue;
+    }
+
+    private static class Bucket {
+        private final double tokensPerNano;
+        private final double capacity;
+        private double tokens;
+        private long lastRefill;
+        private long pausedUntil;
+
+        Bucket(double ratePerSec, int burst) {
+            this.tokensPerNano = ratePerSec / TimeUnit.SECONDS.toNanos(1);
+            this.capacity = Math.max(1, burst);
+            this.tokens = capacity;
+            this.lastRefill = System.nanoTime();
+            this.pausedUntil = lastRefill;
+        }
+
+        synchronized long reserve(long now) {
+            if (pausedUntil - now > 0) {
+                return Math.max(1, TimeUnit.NANOSECONDS.toMillis(pausedUntil - now));
+            }
+            if (tokensPerNano <= 0) {
+                return 0; // 제한 없음
+            }
+
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, TimeUnit.NANOSECONDS.toMillis((long) Math.ceil((1 - tokens) / tokensPerNano)));
+        }
+
+        synchronized void pause(long until) {
+            if (until - pausedUntil > 0) {
+                pausedUntil = until;
+            }
+            // 재개 직후 몰아서 보내지 않도록 토큰을 비운다.
+            tokens = 0;
+            lastRefill = until;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package scouter.plugin.server.alert.slack;
+
+/**
+ * 메신저 전송 결과
+ */
+public class SendResult {
+    public enum Status {
+        SUCCESS,   // 전송 성공
+        FAILED,    // 전송 실패 (재전송하지 않음)
+        RETRY,     // 일시적인 실패 (타임아웃, 5xx), 백오프 후 재전송
+        THROTTLED  // 전송량 제한(429), retryAfterMillis 후 재전송
+    }
+
+    public static final SendResult SUCCESS = new SendResult(Status.SUCCESS, 0);
+    public static final SendResult FAILED = new SendResult(Status.FAILED, 0);
+    public static final SendResult RETRY = new SendResult(Status.RETRY, 0);
+
+    public final Status status;
+    public final long retryAfterMillis;
+
+    private SendResult(Status status, long retryAfterMillis) {
+        this.status = status;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    /**
+     * HTTP 응답 코드로 실패 결과를 판단한다. 408, 5xx는 재전송 대상이다.
+     */
+    public static SendResult failedWith(int statusCode) {
+        return statusCode == 408 || statusCode >= 500 ? RETRY : FAILED;
+    }
+
+    public static SendResult throttled(long retryAfterMillis) {
+        return new SendResult(Status.THROTTLED, retryAfterMillis);
+    }
+}
@@ -0,0 +1,69 @@
+package scouter.plugin.server.alert.slack;
+
+import scouter.plugin.server.alert.messenger.JsonPayloadWriter;
+
+/**
+ * Slack 전송 대상 (Webhook URL, 채널, 봇 설정)
+ */
+public class SlackDestination implements AlertDestination {
+    private static final byte[] COMMA = JsonPayloadWriter.utf8(",");
+    private static final byte[] COLON = JsonPayloadWriter.utf8(":");
+    private static final byte[] OBJECT_END = JsonPayloadWriter.utf8("}");
+
+    public final String webhookURL;
+    public final String channel;
+    public final String botName;
+    public final String iconURL;
+    public final String iconEmoji;
+    public final boolean debug;
+    public final String key;
+    public final String rateKey;
+    private volatile byte[] payloadSuffix;
+
+    public SlackDestination(String webhookURL, String channel, String botName, String iconURL, String iconEmoji,
+            boolean debug) {
+        this.webhookURL = webhookURL;
+        this.channel = channel;
+        this.botName = botName;
+        this.iconURL = iconURL;
+        this.iconEmoji = iconEmoji;
+        this.debug = debug;
+        this.key = "slack|" + webhookURL + "|" + channel;
+        // Slack 전송량 제한은 Webhook 단위이므로 채널이 달라도 같은 Webhook이면 함께 제한한다.
+        this.rateKey = "slack|" + webhookURL;
+    }
+
+    @Override
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public String getRateKey() {
+        return rateKey;
+    }
+
+    /**
+     * 전송 본문에서 text 뒤에 오는 고정 부분 (,"channel":...,"icon_url":...}). 처음 사용할 때 한 번 만든다.
+     */
+    byte[] getPayloadSuffix() {
+        byte[] suffix = payloadSuffix;
+        if (suffix == null) {
+            JsonPayloadWriter writer = JsonPayloadWriter.create();
+            field(writer, "channel", channel);
+            field(writer, "username", botName);
+            field(writer, "icon_emoji", iconEmoji);
+            field(writer, "icon_url", iconURL);
+            suffix = payloadSuffix = writer.raw(OBJECT_END).toByteArray();
+        }
+        return suffix;
+    }
+
+    private static void field(JsonPayloadWriter writer, String name, String value) {
+        // Gson과 같이 null 필드는 생략
+        if (value != null) {
+            writer.raw(COMMA).string(name).raw(COLON).string(value);
+        }
+    }
+}
+
@@ -18,24 +18,18 @@
 package scouter.plugin.server.alert.slack;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import org.apache.http.HttpResponse;
-import org.apache.http.HttpStatus;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.StringEntity;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClientBuilder;
-import org.apache.http.util.EntityUtils;
-
-import com.google.gson.Gson;
-
 import scouter.lang.AlertLevel;
-import scouter.lang.TextTypes;
 import scouter.lang.TimeTypeEnum;
 import scouter.lang.counters.CounterConstants;
 import scouter.lang.pack.AlertPack;
@@ -44,361 +38,430 @@ import scouter.lang.pack.ObjectPack;
 import scouter.lang.pack.PerfCounterPack;
 import scouter.lang.pack.XLogPack;
 import scouter.lang.plugin.PluginConstants;
+import scouter.lang.value.NumberValue;
+import scouter.lang.value.Value;
 import scouter.lang.plugin.annotation.ServerPlugin;
 import scouter.net.RequestCmd;
-import scouter.plugin.server.alert.messenger.works.WorksAuth;
-import scouter.plugin.server.alert.messenger.works.WorksBotMessage;
+import scouter.plugin.server.alert.messenger.works.WorksSink;
 import scouter.server.Configure;
-import scouter.server.CounterManager;
 import scouter.server.Logger;
 import scouter.server.core.AgentManager;
-import scouter.server.db.TextRD;
 import scouter.server.netio.AgentCall;
 import scouter.util.DateUtil;
-import scouter.util.HashUtil;
-import scouter.util.LinkedMap;
+import scouter.util.FormatUtil;
 
 /**
  * Scouter server plugin to send alert via Slack
  *
  * @author Se-Wang Lee(ssamzie101@gmail.com) on 2016. 5. 2.
  */
-public class SlackPlugin {
+public class SlackPlugin implements EvaluationPipeline.Evaluator {
 
 	final Configure conf = Configure.getInstance();
 
 	private final MonitoringGroupConfigure groupConf;
 
+	private static final int SHED_SUMMARY_SERVICES = 10;
+	private static final int THREAD_COUNT_POLL_TICK = 1; // (sec)
+	private static final TimeZone TIME_ZONE = TimeZone.getDefault();
+
 	private static AtomicInteger ai = new AtomicInteger(0);
-	private static List<Integer> javaeeObjHashList = new ArrayList<Integer>();
-	private static LinkedMap<String, AlertHistory> alertHistoryLinkedMap = new LinkedMap<String, AlertHistory>()
-			.setMax(10000);
-	private static final int THREAD_COUNT_INTERVAL = 5; // (min)
-	private static final int ERROR_LOG_INTERVAL = 5; // (min)
-	private static final int ELAPSED_TIME_INTERVAL = 5; // (min)
-	private static final int GC_TIME_INTERVAL = 5; // (min)
+	private static final ConcurrentIntSet javaeeObjHashes = new ConcurrentIntSet();
+	private static final AgentInfoCache agentInfoCache = new AgentInfoCache();
+	private static AlertHistoryStore alertHistoryStore = new AlertHistoryStore(
+			Configure.getInstance().getInt("ext_plugin_alert_history_size", 10000));
+	private static volatile List<AlertSink> sinks = Collections.emptyList();
+	private static volatile AlertRouter router;
+	private static LatencyMonitor[] latencyMonitors;
+	private static AnomalyDetector[] anomalyDetectors;
+	private static volatile EvaluationPipeline pipeline;
+	private static volatile LoadShedder shedder;
+	private static volatile ThreadCountPoller threadCountPoller;
 
 	private final ThreadCountAlertHandler threadCountHandler;
 	private final ElapsedTimeAlertHandler elapsedTimeHandler;
 	private final GCTimeAlertHandler gcTimeHandler;
 	private final ErrorAlertHandler errorHandler;
+	private final PercentileAlertHandler percentileHandler;
+	private final CounterRuleAlertHandler counterRuleHandler;
+	private final AnomalyAlertHandler anomalyHandler;
 
 	public SlackPlugin() {
 		this.groupConf = new MonitoringGroupConfigure(conf);
-		this.threadCountHandler = new ThreadCountAlertHandler(alertHistoryLinkedMap);
-		this.elapsedTimeHandler = new ElapsedTimeAlertHandler(alertHistoryLinkedMap);
-		this.gcTimeHandler = new GCTimeAlertHandler(alertHistoryLinkedMap);
-		this.errorHandler = new ErrorAlertHandler(alertHistoryLinkedMap);
+		this.threadCountHandler = new ThreadCountAlertHandler(alertHistoryStore);
+		this.elapsedTimeHandler = new ElapsedTimeAlertHandler(alertHistoryStore);
+		this.gcTimeHandler = new GCTimeAlertHandler(alertHistoryStore);
+		this.errorHandler = new ErrorAlertHandler(alertHistoryStore);
+		this.percentileHandler = new PercentileAlertHandler(alertHistoryStore);
+		this.counterRuleHandler = new CounterRuleAlertHandler(alertHistoryStore);
+		this.anomalyHandler = new AnomalyAlertHandler(alertHistoryStore);
 
 		initializeScheduledTasks();
 	}
 
 	private void initializeScheduledTasks() {
 		if (ai.incrementAndGet() == 1) {
+			AlertDigest digest = new AlertDigest();
+			AlertOutbox outbox = AlertOutbox.open(conf);
+
+			// 메신저별 전송 채널 - 각자 전용 워커와 큐를 가진다.
+			sinks = Collections.unmodifiableList(Arrays.asList(
+					new SlackSink(groupConf, digest, outbox),
+					new WorksSink(groupConf, digest, outbox)));
+			router = new AlertRouter(conf, sinks);
+
+			// XLog, 카운터 평가는 objHash별 파티션의 평가 스레드에서 처리
+			EvaluationPipeline evaluation = new EvaluationPipeline(conf, this);
+			int maxServices = conf.getInt("ext_plugin_elapsed_percentile_max_services", 2000);
+			latencyMonitors = new LatencyMonitor[evaluation.getPartitionCount()];
+			for (int i = 0; i < latencyMonitors.length; i++) {
+				latencyMonitors[i] = new LatencyMonitor(groupConf, maxServices / latencyMonitors.length + 1);
+			}
+			// 카운터 이상치 기준선도 파티션별로 나누어 보관 (같은 objHash는 항상 같은 파티션)
+			// 감지기는 해당 파티션에 첫 표본이 올 때 만든다. (감지 대상 카운터가 없으면 메모리를 쓰지 않음)
+			anomalyDetectors = new AnomalyDetector[evaluation.getPartitionCount()];
+			pipeline = evaluation;
+			shedder = new LoadShedder(conf, evaluation::getBacklog,
+					(long) conf.getInt("ext_plugin_eval_queue_size", 65536) * evaluation.getPartitionCount());
+
+			if (outbox != null) {
+				// 이전 실행에서 전송되지 못한 알림 재전송
+				for (AlertOutbox.Record record : outbox.recover(sinks)) {
+					record.sink.enqueue(record.destination, record.message);
+				}
+			}
+
+			// 스레드 수는 작업 스레드에서 병렬로 조회 (느린 에이전트가 주기를 막지 않도록)
+			// 에이전트마다 임계값에 가까울수록 자주 조회하므로 매초 조회 시점이 된 에이전트만 고른다.
+			threadCountPoller = new ThreadCountPoller(conf, SlackPlugin::fetchThreadCount,
+					objHash -> groupConf.getGroupConfig(objHash).threadCountThreshold, evaluation::offerThreadCount);
+
 			ScheduledExecutorService executor = Executors.newScheduledThreadPool(1);
-			executor.scheduleAtFixedRate(() -> checkThreadCount(), 0, 5, TimeUnit.SECONDS);
+			executor.scheduleAtFixedRate(() -> checkThreadCount(), 0, THREAD_COUNT_POLL_TICK, TimeUnit.SECONDS);
+			executor.scheduleAtFixedRate(() -> reportBacklog(), 1, 1, TimeUnit.MINUTES);
+			executor.scheduleAtFixedRate(() -> flushExpiredAlerts(), 1, 1, TimeUnit.SECONDS);
+			int summaryInterval = Math.max(1, conf.getInt("ext_plugin_shed_summary_interval", 60));
+			executor.scheduleAtFixedRate(() -> sendShedSummary(), summaryInterval, summaryInterval, TimeUnit.SECONDS);
 		}
 	}
 
-	private void checkThreadCount() {
-		if (conf.getInt("ext_plugin_thread_count_threshold", 0) == 0) {
+	private long lastDropped;
+	private long lastAnomalyOverflowed;
+
+	/**
+	 * 평가 대기 건수와 큐가 가득 차서 버린 건수, 텍스트 캐시 적중률 기록
+	 */
+	private void reportBacklog() {
+		long backlog = pipeline.getBacklog();
+		long dropped = pipeline.getDropped();
+		if (dropped > lastDropped) {
+			Logger.println("[SlackPlugin] evaluation backlog : " + backlog + ", dropped : " + (dropped - lastDropped)
+					+ " (total " + dropped + ")");
+			lastDropped = dropped;
+		} else {
+			println("[SlackPlugin] evaluation backlog : " + backlog);
+		}
+
+		TextCache texts = TextCache.getInstance();
+		println("[SlackPlugin] text cache hit : " + texts.getHitCount() + ", miss : " + texts.getMissCount());
+
+		int series = 0;
+		long removed = 0;
+		long overflowed = 0;
+		for (AnomalyDetector detector : anomalyDetectors) {
+			if (detector == null) {
+				continue;
+			}
+			series += detector.size();
+			removed += detector.getRemoved();
+			overflowed += detector.getOverflowed();
+		}
+		if (overflowed > lastAnomalyOverflowed) {
+			Logger.println("[SlackPlugin] anomaly series : " + series + ", overflowed samples : "
+					+ (overflowed - lastAnomalyOverflowed) + " (total " + overflowed
+					+ "), raise ext_plugin_anomaly_max_series");
+			lastAnomalyOverflowed = overflowed;
+		} else {
+			println("[SlackPlugin] anomaly series : " + series + ", removed idle series : " + removed);
+		}
+		println("[SlackPlugin] thread count polls : " + threadCountPoller.getPolls() + ", failures : "
+				+ threadCountPoller.getFailures() + " (timeouts " + threadCountPoller.getTimeouts() + ")");
+	}
+
+	/**
+	 * 다음 이벤트 없이 구간이 끝난 알림 패턴의 누적 횟수를 알림으로 보내고, 구간 두 개 동안 이벤트가 없는 패턴은 정리한다.
+	 */
+	private void flushExpiredAlerts() {
+		try {
+			alertHistoryStore.expire(System.currentTimeMillis(), expiryListener);
+		} catch (Exception e) {
+			Logger.printStackTrace(e);
+		}
+	}
+
+	private final AlertHistoryStore.ExpiryListener expiryListener = expired -> {
+		AbstractAlertHandler handler = handlerOf(expired.kind);
+		AlertContext context = handler == null ? null : rebuildContext(expired);
+		if (context == null) {
 			return;
 		}
+		AlertPack alertPack = handler.flush(context, expired.historyCount, expired.diff);
+		if (alertPack != null) {
+			alert(alertPack);
+		}
+	};
+
+	/**
+	 * 이력 저장소에 남은 마지막 이벤트 값으로 알림 정보를 다시 만든다. 설정이 바뀌어 규칙이 없어졌으면 null을 반환한다.
+	 */
+	private AlertContext rebuildContext(AlertHistoryStore.Expired expired) {
+		int objHash = AlertHistoryStore.objHash(expired.key);
+		int id = AlertHistoryStore.id(expired.key);
+		GroupConfig config = groupConf.getGroupConfig(objHash);
+		String date = DateUtil.yyyymmdd(expired.endTime != 0 ? expired.endTime : System.currentTimeMillis());
+
+		AlertContext.Builder builder = new AlertContext.Builder()
+				.pattern(expired.kind, id)
+				.objName(TextCache.getInstance().getObject(date, objHash))
+				.objType(config.objType)
+				.interval((int) (expired.intervalMillis / (60 * 1000L)))
+				.metricValue(toMetricValue(expired.value))
+				.threshold(expired.threshold)
+				.endTime(expired.endTime)
+				.objHash(objHash);
+
+		switch (expired.kind) {
+		case AlertKind.ERROR:
+			builder.service(id);
+			break;
+		case AlertKind.ELAPSED:
+			builder.serviceName(TextCache.getInstance().getService(date, id));
+			break;
+		case AlertKind.PERCENTILE:
+			String serviceName = TextCache.getInstance().getService(date, id);
+			builder.serviceName(serviceName).percentile(LatencyMonitor.percentileOf(groupConf, serviceName, config));
+			break;
+		case AlertKind.COUNTER_RULE:
+			CounterRuleSet.Rule rule = config.getCounterRules().find(id);
+			if (rule == null) {
+				return null;
+			}
+			builder.condition(rule.name + " : " + rule).level(rule.level);
+			break;
+		case AlertKind.ANOMALY:
+			String counter = config.getAnomalyCounter(id);
+			if (counter == null) {
+				return null;
+			}
+			builder.condition(counter + " deviates from its baseline");
+			break;
+		default:
+			break;
+		}
+		return builder.build();
+	}
 
-		for (int objHash : javaeeObjHashList) {
-			try {
-				if (!AgentManager.isActive(objHash)) {
-					continue;
+	private AbstractAlertHandler handlerOf(byte kind) {
+		switch (kind) {
+		case AlertKind.ERROR:
+			return errorHandler;
+		case AlertKind.ELAPSED:
+			return elapsedTimeHandler;
+		case AlertKind.GC_TIME:
+			return gcTimeHandler;
+		case AlertKind.THREAD_COUNT:
+			return threadCountHandler;
+		case AlertKind.PERCENTILE:
+			return percentileHandler;
+		case AlertKind.COUNTER_RULE:
+			return counterRuleHandler;
+		case AlertKind.ANOMALY:
+			return anomalyHandler;
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * 부하 차단(집계 모드) 중 누적된 에러 / 응답시간 초과 건수를 objHash별 요약 알림으로 보낸다.
+	 */
+	private void sendShedSummary() {
+		try {
+			LoadShedder.Summary summary = shedder.drain();
+			if (summary == null) {
+				return;
+			}
+
+			Map<Integer, List<Integer>> byObject = new HashMap<Integer, List<Integer>>();
+			for (int i = 0; i < summary.keys.length; i++) {
+				if (summary.used[i]) {
+					int objHash = (int) (summary.keys[i] >>> 32);
+					List<Integer> slots = byObject.get(objHash);
+					if (slots == null) {
+						slots = new ArrayList<Integer>();
+						byObject.put(objHash, slots);
+					}
+					slots.add(i);
 				}
+			}
 
-				ObjectPack objectPack = AgentManager.getAgent(objHash);
-				MapPack mapPack = new MapPack();
-				mapPack.put("objHash", objHash);
-				mapPack = AgentCall.call(objectPack, RequestCmd.OBJECT_THREAD_LIST, mapPack);
-
-				int threadCountThreshold = groupConf.getInt("ext_plugin_thread_count_threshold", objectPack.objType, 0);
-				int threadCount = mapPack.getList("name").size();
-
-				if (threadCountThreshold != 0 && threadCount > threadCountThreshold) {
-					AlertContext context = new AlertContext.Builder()
-							.alertPattern(objHash + "_" + RequestCmd.OBJECT_THREAD_LIST)
-							.objName(objectPack.objName)
-							.objType(objectPack.objType)
-							.interval(conf.getInt("ext_plugin_thread_count_interval", THREAD_COUNT_INTERVAL))
-							.metricValue(String.valueOf(threadCount))
-							.threshold(threadCountThreshold)
-							.objHash(objHash)
-							.build();
-
-					AlertPack alertPack = threadCountHandler.handleAlert(context);
-					if (alertPack != null) {
-						alert(alertPack);
+			String date = DateUtil.yyyymmdd(System.currentTimeMillis());
+			TextCache texts = TextCache.getInstance();
+			for (Map.Entry<Integer, List<Integer>> e : byObject.entrySet()) {
+				int objHash = e.getKey();
+				List<Integer> slots = e.getValue();
+				slots.sort((a, b) -> (summary.errors[b] + summary.slows[b]) - (summary.errors[a] + summary.slows[a]));
+
+				long errorCount = 0;
+				long slowCount = 0;
+				StringBuilder detail = new StringBuilder();
+				for (int n = 0; n < slots.size(); n++) {
+					int i = slots.get(n);
+					errorCount += summary.errors[i];
+					slowCount += summary.slows[i];
+					if (n < SHED_SUMMARY_SERVICES) {
+						detail.append('\n').append(texts.getService(date, (int) summary.keys[i]))
+								.append(" - error : ").append(summary.errors[i])
+								.append(", slow : ").append(summary.slows[i]);
+						if (summary.slows[i] > 0) {
+							detail.append(" (max ").append(FormatUtil.print(summary.maxElapsed[i], "#,##0")).append(" ms)");
+						}
 					}
 				}
-			} catch (Exception e) {
-				Logger.printStackTrace(e);
+				if (slots.size() > SHED_SUMMARY_SERVICES) {
+					detail.append("\n... ").append(slots.size() - SHED_SUMMARY_SERVICES).append(" more services");
+				}
+
+				AlertPack ap = new AlertPack();
+				ap.level = AlertLevel.WARN;
+				ap.objHash = objHash;
+				ap.objType = groupConf.getGroupConfig(objHash).objType;
+				ap.title = "XLog alerts are aggregated due to high load.";
+				ap.message = "error : " + errorCount + ", slow : " + slowCount + detail;
+				ap.time = System.currentTimeMillis();
+				alert(ap);
+			}
+
+			if (summary.overflowed > 0) {
+				Logger.println("[SlackPlugin] load shedding summary overflowed : " + summary.overflowed);
 			}
+		} catch (Exception e) {
+			Logger.printStackTrace(e);
+		}
+	}
+
+	/**
+	 * 조회 시점이 된 JavaEE 에이전트의 스레드 수 조회를 시작한다. (결과는 평가 스레드에서 처리)
+	 */
+	private void checkThreadCount() {
+		if (conf.getInt("ext_plugin_thread_count_threshold", 0) == 0) {
+			return;
+		}
+
+		try {
+			int[] objHashes = javaeeObjHashes.toArray();
+			int[] targets = new int[objHashes.length];
+			int n = 0;
+			for (int objHash : objHashes) {
+				if (AgentManager.isActive(objHash) && groupConf.getGroupConfig(objHash).threadCountThreshold != 0) {
+					targets[n++] = objHash;
+				}
+			}
+			threadCountPoller.poll(n == targets.length ? targets : Arrays.copyOf(targets, n),
+					System.currentTimeMillis());
+		} catch (Exception e) {
+			Logger.printStackTrace(e);
+		}
+	}
+
+	/**
+	 * 에이전트에서 스레드 목록을 받아 스레드 수를 센다. (ThreadCountPoller 작업 스레드에서 호출)
+	 */
+	private static int fetchThreadCount(int objHash) {
+		ObjectPack objectPack = AgentManager.getAgent(objHash);
+		if (objectPack == null) {
+			return -1;
+		}
+		MapPack mapPack = new MapPack();
+		mapPack.put("objHash", objHash);
+		mapPack = AgentCall.call(objectPack, RequestCmd.OBJECT_THREAD_LIST, mapPack);
+		return mapPack != null && mapPack.getList("name") != null ? mapPack.getList("name").size() : -1;
+	}
+
+	@Override
+	public void threadCount(int partition, int objHash, int threadCount) {
+		ObjectPack objectPack = AgentManager.getAgent(objHash);
+		if (objectPack == null) {
+			return;
+		}
+
+		GroupConfig config = groupConf.getGroupConfig(objHash);
+		int threadCountThreshold = config.threadCountThreshold;
+		if (threadCountThreshold == 0 || threadCount <= threadCountThreshold) {
+			return;
+		}
+
+		AlertContext context = new AlertContext.Builder()
+				.pattern(AlertKind.THREAD_COUNT, 0)
+				.objName(objectPack.objName)
+				.objType(objectPack.objType)
+				.interval(config.threadCountInterval)
+				.metricValue(String.valueOf(threadCount))
+				.threshold(threadCountThreshold)
+				.objHash(objHash)
+				.build();
+
+		AlertPack alertPack = threadCountHandler.handleAlert(context);
+		if (alertPack != null) {
+			alert(alertPack);
 		}
 	}
 
 	@ServerPlugin(PluginConstants.PLUGIN_SERVER_ALERT)
 	public void alert(final AlertPack pack) {
-		if (groupConf.getBoolean("ext_plugin_slack_send_alert", pack.objType, false)) {
+		GroupConfig config = groupConf.getGroupConfig(pack.objType);
+		if (config.sendAlert) {
 
 			// 수신 레벨(0 : INFO, 1 : WARN, 2 : ERROR, 3 : FATAL)
-			int level = groupConf.getInt("ext_plugin_slack_level", pack.objType, 0);
+			int level = config.level;
 
 			// Get log level (0 : INFO, 1 : WARN, 2 : ERROR, 3 : FATAL)
 			if (level <= pack.level) {
-				new Thread() {
-					public void run() {
-						try {
-							// 개별 서비스 이름 추출
-							ObjectPack objectPack = AgentManager.getAgent(pack.objHash);
-
-							String objectName = objectPack.objName.substring(objectPack.objName.lastIndexOf("/") + 1);
-							String hostName = objectPack.objName.indexOf("/", 1) > 0
-									? objectPack.objName.substring(1, objectPack.objName.indexOf("/", 1))
-									: objectPack.objName.substring(1);
-							println("objectName : " + objectName + ", objectPack.objName : " + objectPack.objName
-									+ ", objectPack.objType : " + objectPack.objType + ", hostName : " + hostName);
-
-							// Slack 설정
-							String defaultWebhookURL = groupConf.getValue("ext_plugin_slack_webhook_url", pack.objType);
-							String webhookURL = groupConf.getValue("ext_plugin_slack_webhook_url." + objectName,
-									pack.objType, defaultWebhookURL);
-							String channel = groupConf.getValue("ext_plugin_slack_channel", pack.objType);
-							String botName = groupConf.getValue("ext_plugin_slack_botName", pack.objType);
-							String iconURL = groupConf.getValue("ext_plugin_slack_icon_url", pack.objType);
-							String iconEmoji = groupConf.getValue("ext_plugin_slack_icon_emoji", pack.objType);
-
-							// NaverWorks 설정
-							String botId = groupConf.getValue("ext_plugin_works_bot_id", pack.objType);
-							String defaultChannelId = groupConf.getValue("ext_plugin_works_channel_id", pack.objType);
-							String hostChannelId = groupConf.getValue("ext_plugin_works_channel_id." + hostName,
-									pack.objType, defaultChannelId);
-							String channelId = groupConf.getValue("ext_plugin_works_channel_id." + objectName,
-									pack.objType, hostChannelId);
-							String userId = groupConf.getValue("ext_plugin_works_user_id", pack.objType);
-							println("channelId : " + channelId + ", hostChannelId : " + hostChannelId
-									+ ", defaultChannelId : " + defaultChannelId);
-
-							assert webhookURL != null;
-
-							// Get the agent Name
-							String name = AgentManager.getAgentName(pack.objHash) == null ? "N/A"
-									: AgentManager.getAgentName(pack.objHash);
-
-							if (name.equals("N/A") && pack.message.endsWith("connected.")) {
-								int idx = pack.message.indexOf("connected");
-								if (pack.message.indexOf("reconnected") > -1) {
-									name = pack.message.substring(0, idx - 6);
-								} else {
-									name = pack.message.substring(0, idx - 4);
-								}
-							}
-
-							String title = pack.title;
-							String msg = pack.message;
-							if (title.equals("INACTIVE_OBJECT")) {
-								title = "An object has been inactivated.";
-								msg = pack.message.substring(0, pack.message.indexOf("OBJECT") - 1);
-							}
-
-							// Make message contents
-							String contents = "[TYPE] : " + pack.objType.toUpperCase() + "\n" +
-									"[NAME] : " + name + "\n" +
-									"[LEVEL] : " + AlertLevel.getName(pack.level) + "\n" +
-									"[TITLE] : " + title + "\n" +
-									"[MESSAGE] : " + msg;
-
-							Message message = new Message(contents, channel, botName, iconURL, iconEmoji);
-							String payload = new Gson().toJson(message);
-
-							// 로깅 여부 - 기본 값은 false
-							if (groupConf.getBoolean("ext_plugin_slack_debug", pack.objType, false)) {
-								println("WebHookURL : " + webhookURL);
-								println("param : " + payload);
-							}
-
-							// slack 전송
-							HttpPost post = new HttpPost(webhookURL);
-							post.addHeader("Content-Type", "application/json");
-							post.setEntity(new StringEntity(payload, "utf-8"));
-
-							// send the post request
-							try (CloseableHttpClient client = HttpClientBuilder.create().build()) {
-								HttpResponse response = client.execute(post);
-
-								if (response.getStatusLine().getStatusCode() == HttpStatus.SC_OK) {
-									println("Slack message sent to [" + channel + "] successfully.");
-								} else {
-									println("Slack message sent failed. Verify below information.");
-								}
-							} catch (Exception e) {
-								Logger.println("[Error] : " + e.getMessage());
-								if (conf._trace) {
-									e.printStackTrace();
-								}
-							}
-
-							// Works 인증 객체 생성 및 토큰 가져오기
-							WorksAuth worksAuth = new WorksAuth(Configure.getInstance());
-							String accessToken = worksAuth.getAccessToken();
-
-							// 메시지 생성
-							WorksBotMessage worksMessage = new WorksBotMessage();
-							worksMessage.content = new WorksBotMessage.Content();
-
-							// 메시지 타입 결정 (기본값: text)
-							String messageType = groupConf.getValue("ext_plugin_works_message_type", pack.objType,
-									"text");
-
-							if ("flex".equalsIgnoreCase(messageType)) {
-								// Flex 메시지 생성
-								worksMessage.content.type = "flex";
-								worksMessage.content.altText = String.format("[ALERT] %s", title);
-
-								WorksBotMessage.FlexContent flexContent = new WorksBotMessage.FlexContent();
-
-								// 헤더 설정
-								flexContent.header = new WorksBotMessage.Box();
-								flexContent.header.type = "box";
-								flexContent.header.layout = "vertical";
-								flexContent.header.backgroundColor = "#D32F2F";
-								flexContent.header.contents = new WorksBotMessage.BoxContent[1];
-
-								WorksBotMessage.BoxContent headerText = new WorksBotMessage.BoxContent();
-								headerText.type = "text";
-								headerText.text = "모니터링 알람(Alert)";
-								headerText.weight = "bold";
-								headerText.color = "#FFFFFF";
-								headerText.size = "md";
-
-								flexContent.header.contents[0] = headerText;
-
-								// 바디 설정
-								flexContent.body = new WorksBotMessage.Box();
-								flexContent.body.type = "box";
-								flexContent.body.layout = "vertical";
-								flexContent.body.spacing = "sm";
-								flexContent.body.contents = new WorksBotMessage.BoxContent[5];
-
-								// TYPE
-								WorksBotMessage.BoxContent typeContent = new WorksBotMessage.BoxContent();
-								typeContent.type = "text";
-								typeContent.text = String.format("[TYPE] : %s", pack.objType.toUpperCase());
-								typeContent.wrap = true;
-								typeContent.size = "sm";
-								flexContent.body.contents[0] = typeContent;
-
-								// NAME
-								WorksBotMessage.BoxContent nameContent = new WorksBotMessage.BoxContent();
-								nameContent.type = "text";
-								nameContent.text = String.format("[NAME] : %s", name);
-								nameContent.wrap = true;
-								nameContent.size = "sm";
-								flexContent.body.contents[1] = nameContent;
-
-								// LEVEL
-								WorksBotMessage.BoxContent levelContent = new WorksBotMessage.BoxContent();
-								levelContent.type = "text";
-								levelContent.text = String.format("[LEVEL] : %s", AlertLevel.getName(pack.level));
-								levelContent.wrap = true;
-								levelContent.size = "sm";
-								flexContent.body.contents[2] = levelContent;
-
-								// TITLE
-								WorksBotMessage.BoxContent titleContent = new WorksBotMessage.BoxContent();
-								titleContent.type = "text";
-								titleContent.text = String.format("[TITLE] : %s", title);
-								titleContent.wrap = true;
-								titleContent.size = "sm";
-								flexContent.body.contents[3] = titleContent;
-
-								// MESSAGE
-								WorksBotMessage.BoxContent messageContent = new WorksBotMessage.BoxContent();
-								messageContent.type = "text";
-								messageContent.text = String.format("[MESSAGE] : %s", msg);
-								messageContent.wrap = true;
-								messageContent.size = "sm";
-								flexContent.body.contents[4] = messageContent;
-
-								// 푸터 설정
-								flexContent.footer = new WorksBotMessage.Box();
-								flexContent.footer.type = "box";
-								flexContent.footer.layout = "vertical";
-								flexContent.footer.backgroundColor = "#0070C0";
-								flexContent.footer.contents = new WorksBotMessage.BoxContent[1];
-
-								WorksBotMessage.BoxContent footerText = new WorksBotMessage.BoxContent();
-								footerText.type = "text";
-								footerText.text = "확인 바랍니다.";
-								footerText.align = "center";
-								footerText.color = "#FFFFFF";
-								footerText.size = "sm";
-
-								flexContent.footer.contents[0] = footerText;
-
-								worksMessage.content.contents = flexContent;
-							} else {
-								// Text 메시지 생성
-								worksMessage.content.type = "text";
-								worksMessage.content.text = String.format(
-										"[TYPE] : %s\n[NAME] : %s\n[LEVEL] : %s\n[TITLE] : %s\n[MESSAGE] : %s",
-										pack.objType.toUpperCase(),
-										name,
-										AlertLevel.getName(pack.level),
-										title,
-										msg);
-							}
-
-							Gson gson = new Gson();
-							payload = gson.toJson(worksMessage);
-
-							// 디버그 로깅
-							println("Works Bot Payload: " + payload);
-
-							// HTTP 요청 설정
-							String userMessageApiEndpoint = "https://www.worksapis.com/v1.0/bots/" + botId + "/users/"
-									+ userId + "/messages";
-
-							String channelMessageApiEndpoint = "https://www.worksapis.com/v1.0/bots/" + botId
-									+ "/channels/" + channelId + "/messages";
-
-							// println("channelMessageApiEndpoint : " + channelMessageApiEndpoint);
-
-							post = new HttpPost(channelMessageApiEndpoint);
-							post.addHeader("Content-Type", "application/json");
-							post.addHeader("Authorization", "Bearer " + accessToken);
-							post.setEntity(new StringEntity(payload, "utf-8"));
-
-							// HTTP 요청 실행
-							try (CloseableHttpClient client = HttpClientBuilder.create().build()) {
-								HttpResponse response = client.execute(post);
-
-								if (response.getStatusLine().getStatusCode() == HttpStatus.SC_OK ||
-										response.getStatusLine().getStatusCode() == HttpStatus.SC_CREATED) {
-									println("Works Bot message sent successfully.");
-								} else {
-									Logger.println("Works Bot message sending failed. Response: " +
-											EntityUtils.toString(response.getEntity(), "UTF-8"));
-								}
-							}
-						} catch (Exception e) {
-							Logger.println("[Error] : " + e.getMessage());
-							if (conf._trace) {
-								e.printStackTrace();
-							}
-						}
+				// objHash로 미리 만들어 둔 목적지를 찾는다. 신규 객체는 object()에서 등록한 정보를 사용한다.
+				ObjectPack objectPack = AgentManager.getAgent(pack.objHash);
+				AlertRouter.Route route = objectPack != null ? router.route(objectPack) : router.get(pack.objHash);
+				if (route == null) {
+					Logger.println("[Error] : unknown object(" + pack.objHash + ") for alert " + pack.title);
+					return;
+				}
+				println("objectName : " + route.objectName + ", objectPack.objName : " + route.objName
+						+ ", objectPack.objType : " + route.objType + ", hostName : " + route.hostName);
+
+				AlertMessage message = AlertMessage.of(pack);
+
+				// 설정된 모든 메신저로 전달. 각 메신저는 자신의 워커에서 병렬로 전송한다.
+				for (int i = 0; i < route.sinks.length; i++) {
+					AlertSink sink = route.sinks[i];
+					try {
+						sink.enqueue(route.destinations[i], message);
+					} catch (Exception e) {
+						Logger.println("[Error] : [" + sink.getName() + "] " + e.getMessage());
 					}
-				}.start();
+				}
 			}
 		}
 	}
 
 	@ServerPlugin(PluginConstants.PLUGIN_SERVER_OBJECT)
 	public void object(ObjectPack pack) {
+		// 알림 목적지 라우팅 정보 등록, 상태가 바뀐 에이전트 정보는 다시 해석
+		router.register(pack);
+		groupConf.invalidate(pack);
+		if (agentInfoCache.invalidate(pack) && !pack.alive) {
+			javaeeObjHashes.remove(pack.objHash);
+			threadCountPoller.remove(pack.objHash);
+		}
+
 		// object active/dead alert - default : false
 		if (!conf.getBoolean("ext_plugin_slack_object_alert_enabled", false)) {
 			return;
@@ -442,101 +505,191 @@ public class SlackPlugin {
 
 	@ServerPlugin(PluginConstants.PLUGIN_SERVER_XLOG)
 	public void xlog(XLogPack pack) {
-		if (!conf.getBoolean("ext_plugin_slack_xlog_enabled", false)) {
+		// 대부분의 XLog는 알림 대상이 아니므로 objHash별 설정 스냅샷의 기본형 값만 비교하고 끝낸다.
+		// 대상이면 기본형 값만 평가 큐에 넣고 바로 반환한다. (텍스트 조회, 알림 생성은 평가 스레드에서 수행)
+		GroupConfig config = groupConf.getGroupConfig(pack.objHash);
+		if (!config.xlogEnabled) {
+			return;
+		}
+
+		int elapsedThreshold = config.elapsedTimeThreshold;
+		boolean elapsedOver = elapsedThreshold != 0 && pack.elapsed > elapsedThreshold;
+		boolean alertable = pack.error != 0 || elapsedOver;
+		if (!alertable && !config.elapsedPercentileEnabled) {
+			return;
+		}
+
+		// 에러 / 응답시간 초과만 평가량으로 센다. 기준을 넘으면 건별 평가 대신 건수만 집계 (주기적으로 요약 알림)
+		// 백분위 기록은 건당 O(1)이므로 집계 모드에서도 계속한다.
+		if (alertable && !shedder.admit(System.currentTimeMillis())) {
+			shedder.aggregate(pack.objHash, pack.service, pack.error != 0, elapsedOver, pack.elapsed);
+			if (config.elapsedPercentileEnabled) {
+				pipeline.offerLatency(pack.objHash, pack.service, pack.elapsed, pack.endTime);
+			}
+			return;
+		}
+
+		pipeline.offerXLog(pack.objHash, pack.service, pack.elapsed, pack.error, pack.endTime);
+	}
+
+	@Override
+	public void xlog(int partition, int objHash, int service, int elapsed, int error, long endTime) {
+		GroupConfig config = groupConf.getGroupConfig(objHash);
+		if (!config.xlogEnabled) {
+			return;
+		}
+
+		// 서비스별 응답시간 분포 기록 (구간이 끝날 때만 백분위를 평가)
+		if (config.elapsedPercentileEnabled) {
+			checkPercentile(latencyMonitors[partition], objHash, service, elapsed, endTime, config);
+		}
+
+		int elapsedThreshold = config.elapsedTimeThreshold;
+		boolean elapsedOver = elapsedThreshold != 0 && elapsed > elapsedThreshold;
+		if (error == 0 && !elapsedOver) {
 			return;
 		}
 
-		String serviceName = TextRD.getString(DateUtil.yyyymmdd(pack.endTime), TextTypes.SERVICE, pack.service);
-		String objName = TextRD.getString(DateUtil.yyyymmdd(pack.endTime), TextTypes.OBJECT, pack.objHash);
-		String objType = AgentManager.getAgent(pack.objHash) != null ? AgentManager.getAgent(pack.objHash).objType
-				: "scouter";
+		// 알림을 만들 때만 이름을 조회한다.
+		String date = DateUtil.yyyymmdd(endTime);
+		String objName = TextCache.getInstance().getObject(date, objHash);
+
+		// Error 처리
+		if (error != 0) {
+			AlertContext context = new AlertContext.Builder()
+					.pattern(AlertKind.ERROR, service)
+					.objName(objName)
+					.objType(config.objType)
+					.interval(config.errorLogInterval)
+					.metricValue(String.valueOf(error))
+					.service(service)
+					.endTime(endTime)
+					.objHash(objHash)
+					.build();
+
+			AlertPack alertPack = errorHandler.handleAlert(context);
+			if (alertPack != null) {
+				alert(alertPack);
+			}
+		}
 
-		if (groupConf.getBoolean("ext_plugin_slack_xlog_enabled", objType, true)) {
-			// Error 처리
-			if (pack.error != 0) {
+		// Elapsed Time 처리
+		try {
+			if (elapsedOver) {
+				String serviceName = TextCache.getInstance().getService(date, service);
 				AlertContext context = new AlertContext.Builder()
-						.alertPattern(pack.objHash + "_" + pack.service + "_error")
+						.pattern(AlertKind.ELAPSED, service)
 						.objName(objName)
-						.objType(objType)
-						.interval(conf.getInt("ext_plugin_error_log_interval", ERROR_LOG_INTERVAL))
-						.metricValue(String.valueOf(pack.error))
-						.service(pack.service)
-						.endTime(pack.endTime)
-						.objHash(pack.objHash)
+						.objType(config.objType)
+						.interval(config.elapsedTimeInterval)
+						.metricValue(String.valueOf(elapsed))
+						.serviceName(serviceName)
+						.threshold(elapsedThreshold)
+						.endTime(endTime)
+						.objHash(objHash)
 						.build();
 
-				AlertPack alertPack = errorHandler.handleAlert(context);
+				AlertPack alertPack = elapsedTimeHandler.handleAlert(context);
 				if (alertPack != null) {
 					alert(alertPack);
 				}
 			}
+		} catch (Exception e) {
+			Logger.printStackTrace(e);
+		}
+	}
 
-			// Elapsed Time 처리
-			try {
-				int elapsedThreshold = groupConf.getInt("ext_plugin_elapsed_time_threshold", objType, 0);
-				if (elapsedThreshold != 0 && pack.elapsed > elapsedThreshold) {
-					AlertContext context = new AlertContext.Builder()
-							.alertPattern(pack.objHash + "_" + pack.service + "_elapsed")
-							.objName(objName)
-							.objType(objType)
-							.interval(conf.getInt("ext_plugin_elapsed_time_interval", ELAPSED_TIME_INTERVAL))
-							.metricValue(String.valueOf(pack.elapsed))
-							.serviceName(serviceName)
-							.threshold(elapsedThreshold)
-							.objHash(pack.objHash)
-							.build();
-
-					AlertPack alertPack = elapsedTimeHandler.handleAlert(context);
-					if (alertPack != null) {
-						alert(alertPack);
-					}
-				}
-			} catch (Exception e) {
-				Logger.printStackTrace(e);
-			}
+	@Override
+	public void latency(int partition, int objHash, int service, int elapsed, long endTime) {
+		GroupConfig config = groupConf.getGroupConfig(objHash);
+		if (config.xlogEnabled && config.elapsedPercentileEnabled) {
+			checkPercentile(latencyMonitors[partition], objHash, service, elapsed, endTime, config);
 		}
 	}
 
-	@ServerPlugin(PluginConstants.PLUGIN_SERVER_COUNTER)
-	public void counter(PerfCounterPack pack) {
-		String objName = pack.objName;
-		int objHash = HashUtil.hash(objName);
-		String objType = null;
-		String objFamily = null;
+	private void checkPercentile(LatencyMonitor latencyMonitor, int objHash, int service, int elapsed, long endTime,
+			GroupConfig config) {
+		try {
+			LatencyMonitor.ServiceLatency latency = latencyMonitor.record(objHash, service, elapsed, endTime, config);
+			if (latency == null) {
+				return;
+			}
 
-		if (AgentManager.getAgent(objHash) != null) {
-			objType = AgentManager.getAgent(objHash).objType;
+			AlertContext context = new AlertContext.Builder()
+					.pattern(AlertKind.PERCENTILE, service)
+					.objName(TextCache.getInstance().getObject(DateUtil.yyyymmdd(endTime), objHash))
+					.objType(config.objType)
+					.interval(config.elapsedPercentileWindow)
+					.metricValue(String.valueOf(latency.value))
+					.serviceName(latency.serviceName)
+					.threshold(latency.threshold)
+					.percentile(latency.percentile)
+					.endTime(endTime)
+					.objHash(objHash)
+					.build();
+
+			AlertPack alertPack = percentileHandler.handleAlert(context);
+			if (alertPack != null) {
+				alert(alertPack);
+			}
+		} catch (Exception e) {
+			Logger.printStackTrace(e);
 		}
+	}
 
-		if (objType != null) {
-			objFamily = CounterManager.getInstance().getCounterEngine().getObjectType(objType).getFamily().getName();
+	@ServerPlugin(PluginConstants.PLUGIN_SERVER_COUNTER)
+	public void counter(PerfCounterPack pack) {
+		// objName별로 한 번만 해석한 objHash, objType, family 사용
+		AgentInfoCache.AgentInfo agent = agentInfoCache.get(pack.objName);
+		if (agent == null) {
+			return;
 		}
+		final int objHash = agent.objHash;
 
 		try {
-			if (CounterConstants.FAMILY_JAVAEE.equals(objFamily)) {
-				if (!javaeeObjHashList.contains(objHash)) {
-					javaeeObjHashList.add(objHash);
+			// 카운터 규칙 - objType별로 컴파일된 규칙과 한 번에 비교하고, 위반한 규칙만 평가 스레드로 넘긴다.
+			if (pack.timetype == TimeTypeEnum.REALTIME) {
+				GroupConfig config = groupConf.getGroupConfig(objHash);
+				CounterRuleSet rules = config.getCounterRules();
+				if (!rules.isEmpty()) {
+					rules.check(pack, (rule, value) -> pipeline.offerCounterRule(objHash, rule.id, value));
 				}
 
+				// 이상치 감지 - 대상 카운터 값만 평가 스레드로 넘긴다. (기준선은 파티션별 상태)
+				if (config.anomalyCounters.length > 0) {
+					long time = pack.time > 0 ? pack.time : System.currentTimeMillis();
+					int hour = (int) (((time + TIME_ZONE.getOffset(time)) / 3600000L) % 24);
+					for (int i = 0; i < config.anomalyCounters.length; i++) {
+						Value value = pack.data.get(config.anomalyCounters[i]);
+						if (value instanceof NumberValue) {
+							pipeline.offerAnomaly(objHash, config.anomalyCounterIds[i], hour,
+									((NumberValue) value).doubleValue());
+						}
+					}
+				}
+			}
+
+			if (agent.javaee) {
+				javaeeObjHashes.add(objHash);
+
 				if (pack.timetype == TimeTypeEnum.REALTIME) {
-					long gcTimeThreshold = groupConf.getLong("ext_plugin_gc_time_threshold", objType, 0);
+					GroupConfig config = groupConf.getGroupConfig(objHash);
+
+					// 스레드 수 카운터를 보내는 에이전트는 조회(OBJECT_THREAD_LIST) 대신 카운터 값을 사용
+					if (config.threadCountThreshold != 0 && !config.threadCountCounter.isEmpty()) {
+						Value threadCount = pack.data.get(config.threadCountCounter);
+						if (threadCount instanceof NumberValue) {
+							threadCountPoller.reportCounter(objHash, System.currentTimeMillis());
+							pipeline.offerThreadCount(objHash, ((NumberValue) threadCount).intValue());
+						}
+					}
+
+					long gcTimeThreshold = config.gcTimeThreshold;
 					long gcTime = pack.data.getLong(CounterConstants.JAVA_GC_TIME);
 
 					if (gcTimeThreshold != 0 && gcTime > gcTimeThreshold) {
-						AlertContext context = new AlertContext.Builder()
-								.alertPattern(objHash + "_" + CounterConstants.JAVA_GC_TIME)
-								.objName(objName)
-								.objType(objType)
-								.interval(conf.getInt("ext_plugin_gc_time_interval", GC_TIME_INTERVAL))
-								.metricValue(String.valueOf(gcTime))
-								.threshold((int) gcTimeThreshold)
-								.objHash(objHash)
-								.build();
-
-						AlertPack alertPack = gcTimeHandler.handleAlert(context);
-						if (alertPack != null) {
-							alert(alertPack);
-						}
+						// 알림 처리는 평가 스레드에서
+						pipeline.offerGcTime(objHash, gcTime);
 					}
 				}
 			}
@@ -545,6 +698,111 @@ public class SlackPlugin {
 		}
 	}
 
+	@Override
+	public void counterRule(int partition, int objHash, int ruleId, double value) {
+		ObjectPack objectPack = AgentManager.getAgent(objHash);
+		if (objectPack == null) {
+			return;
+		}
+
+		// 설정이 바뀌어 규칙이 없어졌으면 무시
+		CounterRuleSet.Rule rule = groupConf.getGroupConfig(objHash).getCounterRules().find(ruleId);
+		if (rule == null) {
+			return;
+		}
+
+		AlertContext context = new AlertContext.Builder()
+				.pattern(AlertKind.COUNTER_RULE, rule.id)
+				.objName(objectPack.objName)
+				.objType(objectPack.objType)
+				.interval(rule.interval)
+				.metricValue(toMetricValue(value))
+				.condition(rule.name + " : " + rule)
+				.level(rule.level)
+				.objHash(objHash)
+				.build();
+
+		AlertPack alertPack = counterRuleHandler.handleAlert(context);
+		if (alertPack != null) {
+			alert(alertPack);
+		}
+	}
+
+	@Override
+	public void anomaly(int partition, int objHash, int counterId, int hour, double value) {
+		GroupConfig config = groupConf.getGroupConfig(objHash);
+		AnomalyDetector detector = anomalyDetectors[partition];
+		if (detector == null) {
+			// 파티션 전용 상태이므로 평가 스레드 하나만 만든다.
+			int maxSeries = conf.getInt("ext_plugin_anomaly_max_series", 200000);
+			detector = anomalyDetectors[partition] = new AnomalyDetector(maxSeries / anomalyDetectors.length + 1,
+					conf.getBoolean("ext_plugin_anomaly_seasonal", false),
+					conf.getLong("ext_plugin_anomaly_series_idle_minutes", 60) * 60 * 1000L);
+		}
+		double z = detector.update(objHash, counterId, hour, value, config.anomalySettings,
+				System.currentTimeMillis());
+		if (z == 0) {
+			return;
+		}
+
+		// 설정이 바뀌어 감지 대상에서 빠졌으면 무시
+		String counter = config.getAnomalyCounter(counterId);
+		ObjectPack objectPack = AgentManager.getAgent(objHash);
+		if (counter == null || objectPack == null) {
+			return;
+		}
+
+		AlertContext context = new AlertContext.Builder()
+				.pattern(AlertKind.ANOMALY, counterId)
+				.objName(objectPack.objName)
+				.objType(objectPack.objType)
+				.interval(config.anomalyInterval)
+				.metricValue(toMetricValue(value))
+				.condition(counter + " is " + FormatUtil.print(z, "#,##0.#") + " sigma away from baseline "
+						+ FormatUtil.print(detector.getLastMean(), "#,##0.##") + " (sigma "
+						+ FormatUtil.print(detector.getLastSigma(), "#,##0.##") + ")")
+				.objHash(objHash)
+				.build();
+
+		AlertPack alertPack = anomalyHandler.handleAlert(context);
+		if (alertPack != null) {
+			alert(alertPack);
+		}
+	}
+
+	private static String toMetricValue(double value) {
+		return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+	}
+
+	@Override
+	public void gcTime(int partition, int objHash, long gcTime) {
+		ObjectPack objectPack = AgentManager.getAgent(objHash);
+		if (objectPack == null) {
+			return;
+		}
+
+		GroupConfig config = groupConf.getGroupConfig(objectPack.objType);
+		long gcTimeThreshold = config.gcTimeThreshold;
+		if (gcTimeThreshold == 0 || gcTime <= gcTimeThreshold) {
+			return;
+		}
+
+		AlertContext context = new AlertContext.Builder()
+				.pattern(AlertKind.GC_TIME, 0)
+				.objName(objectPack.objName)
+				.objType(objectPack.objType)
+				.interval(config.gcTimeInterval)
+				.metricValue(String.valueOf(gcTime))
+				.threshold((int) gcTimeThreshold)
+				.objHash(objHash)
+				.build();
+
+		AlertPack alertPack = gcTimeHandler.handleAlert(context);
+		if (alertPack != null) {
+			alert(alertPack);
+		}
+	}
+
 	private void println(Object o) {
 		if (conf.getBoolean("ext_plugin_slack_debug", false)) {
 			System.out.println(o);
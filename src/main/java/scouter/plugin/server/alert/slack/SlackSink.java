@@ -0,0 +1,100 @@
+package scouter.plugin.server.alert.slack;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.http.HttpStatus;
+
+import scouter.io.DataInputX;
+import scouter.io.DataOutputX;
+import scouter.plugin.server.alert.messenger.HttpClientManager;
+import scouter.plugin.server.alert.messenger.HttpTransport;
+import scouter.plugin.server.alert.messenger.JsonPayloadWriter;
+
+/**
+ * Slack Incoming Webhook 전송
+ */
+public class SlackSink extends AbstractAlertSink<SlackDestination> {
+    private static final byte[] TEXT_PREFIX = JsonPayloadWriter.utf8("{\"text\":");
+
+    public SlackSink(MonitoringGroupConfigure groupConf, AlertDigest digest, AlertOutbox outbox) {
+        super("slack", groupConf, digest, outbox);
+    }
+
+    @Override
+    public SlackDestination resolve(String objType, String objectName, String hostName) {
+        // 설정 스냅샷이 교체될 때까지 객체 이름별로 한 번만 해석
+        return groupConf.getGroupConfig(objType).resolve("slack|" + objectName, k -> {
+            String webhookURL = groupConf.getValueByName("ext_plugin_slack_webhook_url", objType, objectName,
+                    groupConf.getValue("ext_plugin_slack_webhook_url", objType));
+            if (webhookURL == null || webhookURL.trim().isEmpty()) {
+                return null;
+            }
+            return new SlackDestination(webhookURL,
+                    groupConf.getValue("ext_plugin_slack_channel", objType),
+                    groupConf.getValue("ext_plugin_slack_botName", objType),
+                    groupConf.getValue("ext_plugin_slack_icon_url", objType),
+                    groupConf.getValue("ext_plugin_slack_icon_emoji", objType),
+                    groupConf.getBoolean("ext_plugin_slack_debug", objType, false));
+        });
+    }
+
+    @Override
+    protected CompletableFuture<SendResult> send(SlackDestination destination, List<AlertMessage> messages) {
+        byte[] payload = render(destination, messages);
+
+        // 로깅 여부 - 기본 값은 false
+        if (destination.debug) {
+            println("WebHookURL : " + destination.webhookURL);
+            println("param : " + new String(payload, StandardCharsets.UTF_8));
+        }
+
+        // slack 전송
+        return HttpTransport.getInstance().post(destination.webhookURL, Collections.emptyMap(), payload,
+                getTimeoutMillis())
+                .thenApply(response -> {
+                    int statusCode = response.statusCode;
+                    if (statusCode == HttpStatus.SC_OK) {
+                        println("Slack message sent to [" + destination.channel + "] successfully.");
+                        return SendResult.SUCCESS;
+                    } else if (statusCode == HttpClientManager.SC_TOO_MANY_REQUESTS) {
+                        long retryAfter = response.getRetryAfterMillis(1000L);
+                        println("Slack rate limited. retry after " + retryAfter + " ms");
+                        return SendResult.throttled(retryAfter);
+                    } else {
+                        println("Slack message sent failed. Verify below information.");
+                        return SendResult.failedWith(statusCode);
+                    }
+                });
+    }
+
+    /**
+     * Message를 Gson으로 직렬화한 결과와 같은 본문. text 이후의 채널, 봇 설정은 목적지별로 한 번만 직렬화한다.
+     */
+    static byte[] render(SlackDestination destination, List<AlertMessage> messages) {
+        JsonPayloadWriter writer = JsonPayloadWriter.get().raw(TEXT_PREFIX).quote();
+        AlertMessage.writeDigestText(messages, writer);
+        return writer.quote().raw(destination.getPayloadSuffix()).toByteArray();
+    }
+
+    @Override
+    public void writeDestination(AlertDestination destination, DataOutputX out) throws IOException {
+        SlackDestination slack = (SlackDestination) destination;
+        AlertOutbox.writeNullable(out, slack.webhookURL);
+        AlertOutbox.writeNullable(out, slack.channel);
+        AlertOutbox.writeNullable(out, slack.botName);
+        AlertOutbox.writeNullable(out, slack.iconURL);
+        AlertOutbox.writeNullable(out, slack.iconEmoji);
+        out.writeBoolean(slack.debug);
+    }
+
+    @Override
+    public SlackDestination readDestination(DataInputX in) throws IOException {
+        return new SlackDestination(AlertOutbox.readNullable(in), AlertOutbox.readNullable(in),
+                AlertOutbox.readNullable(in), AlertOutbox.readNullable(in), AlertOutbox.readNullable(in),
+                in.readBoolean());
+    }
+}
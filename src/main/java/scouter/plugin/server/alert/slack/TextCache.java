@@ -0,0 +1,105 @@
+package scouter.plugin.server.alert.slack;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import scouter.lang.TextTypes;
+import scouter.server.Configure;
+import scouter.server.db.TextRD;
+import scouter.util.LongKeyLinkedMap;
+
+/**
+ * TextRD(서비스명, 객체명, 에러 메시지) 조회 결과 캐시
+ *
+ * 텍스트 종류별로 (날짜, hash)를 long 키로 묶어 최근 사용 순서(LRU)로 보관하며, 최대 개수를 넘으면 가장 오래 사용하지 않은 항목을 제거한다.
+ * 에러 메시지는 알림에 사용할 길이로 잘라서 보관하므로 긴 stack trace를 매번 인코딩하지 않는다.
+ * 아직 저장되지 않은 텍스트(null)는 캐시하지 않는다.
+ *
+ * ex)
+ *   ext_plugin_text_cache_size=2000
+ */
+public final class TextCache {
+    static final int MAX_ERROR_BYTES = 5000;
+    static final int ERROR_TRUNCATE_LENGTH = 1666; // 한글 기준 약 5000bytes
+
+    private static final TextCache instance = new TextCache(Configure.getInstance().getInt("ext_plugin_text_cache_size", 2000));
+
+    private final LongKeyLinkedMap<String> services;
+    private final LongKeyLinkedMap<String> objects;
+    private final LongKeyLinkedMap<String> errors;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private TextCache(int max) {
+        max = Math.max(16, max);
+        this.services = new LongKeyLinkedMap<String>().setMax(max);
+        this.objects = new LongKeyLinkedMap<String>().setMax(max);
+        this.errors = new LongKeyLinkedMap<String>().setMax(max);
+    }
+
+    public static TextCache getInstance() {
+        return instance;
+    }
+
+    public String getService(String date, int hash) {
+        return get(services, date, TextTypes.SERVICE, hash, false);
+    }
+
+    public String getObject(String date, int hash) {
+        return get(objects, date, TextTypes.OBJECT, hash, false);
+    }
+
+    /**
+     * 알림에 사용할 에러 메시지. 약 5000bytes를 넘으면 잘라서 "..."을 붙인다.
+     */
+    public String getError(String date, int hash) {
+        return get(errors, date, TextTypes.ERROR, hash, true);
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    private String get(LongKeyLinkedMap<String> cache, String date, String type, int hash, boolean truncate) {
+        long key = ((long) toDateKey(date) << 32) | (hash & 0xFFFFFFFFL);
+        String text = cache.get(key);
+        if (text != null) {
+            hits.incrementAndGet();
+            cache.putLast(key, text); // 최근 사용 순서로 이동
+            return text;
+        }
+
+        misses.incrementAndGet();
+        text = TextRD.getString(date, type, hash);
+        if (text == null) {
+            return null;
+        }
+        if (truncate && AlertMessage.utf8Length(text) > MAX_ERROR_BYTES) {
+            text = text.substring(0, ERROR_TRUNCATE_LENGTH) + "...";
+        }
+        cache.putLast(key, text);
+        return text;
+    }
+
+    /**
+     * yyyymmdd 문자열을 정수로 변환한다. 숫자가 아니면 문자열 hash를 사용한다.
+     */
+    private static int toDateKey(String date) {
+        if (date == null) {
+            return 0;
+        }
+        int value = 0;
+        for (int i = 0; i < date.length(); i++) {
+            char c = date.charAt(i);
+            if (c < '0' || c > '9' || i >= 9) {
+                return date.hashCode();
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -2,17 +2,11 @@ package scouter.plugin.server.alert.slack;
 
 import scouter.lang.AlertLevel;
 import scouter.util.FormatUtil;
-import scouter.util.LinkedMap;
 
 public class ThreadCountAlertHandler extends AbstractAlertHandler {
 
-    public ThreadCountAlertHandler(LinkedMap<String, AlertHistory> alertHistoryLinkedMap) {
-        super(alertHistoryLinkedMap);
-    }
-
-    @Override
-    protected AlertHistory createHistory(long timestamp) {
-        return new AlertHistory(timestamp, 0);
+    public ThreadCountAlertHandler(AlertHistoryStore historyStore) {
+        super(historyStore);
     }
 
     @Override
@@ -0,0 +1,279 @@
+package scouter.plugin.server.alert.slack;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntUnaryOperator;
+
+import scouter.server.Configure;
+import scouter.server.Logger;
+
+/**
+ * 에이전트 스레드 수 병렬 조회
+ *
+ * 조회 시점이 된 에이전트를 작업 스레드(ext_plugin_thread_count_poll_threads)에 나누어 맡기고 결과를 기다리지 않으므로
+ * 응답이 느린 에이전트가 있어도 다른 에이전트의 조회나 다음 주기가 밀리지 않는다.
+ * 에이전트마다 조회는 한 번에 하나만 진행하며, 제한 시간(ext_plugin_thread_count_poll_timeout_ms)이 지나면 작업 스레드는 응답을 기다리지 않고 실패로 처리한다.
+ * 에이전트 호출은 별도의 호출 스레드에서 실행하므로 응답하지 않는 에이전트가 붙잡는 것은 호출 스레드뿐이며,
+ * 그 호출이 끝날 때까지 해당 에이전트는 다시 조회하지 않는다. (응답하지 않는 에이전트 하나당 호출 스레드는 최대 하나)
+ * 연속으로 실패한 에이전트는 최소 간격의 2^n배(최대 ext_plugin_thread_count_poll_max_backoff 초) 동안 건너뛴다.
+ * 스레드 수를 카운터로 보내는 에이전트는 {@link #reportCounter(int, long)}로 알려주면 조회하지 않는다.
+ *
+ * 다음 조회 시점은 에이전트마다 따로 정한다. 임계값의 50% 이하이면 최대 간격, 90% 이상이거나 넘었으면 최소 간격으로 조회하고,
+ * 스레드 수가 늘고 있으면 지금 추세로 임계값에 닿기 전에 두 번 이상 조회하도록 간격을 줄인다.
+ *
+ * ex)
+ *   ext_plugin_thread_count_poll_min_interval=5
+ *   ext_plugin_thread_count_poll_max_interval=30
+ *   ext_plugin_thread_count_poll_threads=8
+ *   ext_plugin_thread_count_poll_timeout_ms=3000
+ *   ext_plugin_thread_count_poll_max_backoff=300
+ */
+public class ThreadCountPoller {
+    // 카운터가 이 시간 동안 오지 않으면 다시 조회한다.
+    private static final long COUNTER_STALE_MILLIS = 30000L;
+    private static final int MAX_BACKOFF_SHIFT = 16;
+    // 임계값 대비 비율 - FAR 이하는 최대 간격, NEAR 이상은 최소 간격
+    private static final double FAR = 0.5;
+    private static final double NEAR = 0.9;
+
+    private final Fetcher fetcher;
+    private final IntUnaryOperator threshold;
+    private final Listener listener;
+    private final ExecutorService workers;
+    private final ExecutorService callers;
+    private final long minInterval;
+    private final long maxInterval;
+    private final long timeout;
+    private final long maxBackoff;
+
+    private final ConcurrentHashMap<Integer, Agent> agents = new ConcurrentHashMap<Integer, Agent>();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong polls = new AtomicLong();
+
+    /**
+     * @param threshold objHash별 스레드 수 임계값 (0이면 최대 간격으로 조회)
+     */
+    public ThreadCountPoller(Configure conf, Fetcher fetcher, IntUnaryOperator threshold, Listener listener) {
+        this.fetcher = fetcher;
+        this.threshold = threshold;
+        this.listener = listener;
+        this.minInterval = Math.max(1, conf.getInt("ext_plugin_thread_count_poll_min_interval", 5)) * 1000L;
+        this.maxInterval = Math.max(minInterval,
+                conf.getInt("ext_plugin_thread_count_poll_max_interval", 30) * 1000L);
+        this.timeout = conf.getLong("ext_plugin_thread_count_poll_timeout_ms", 3000L);
+        this.maxBackoff = conf.getInt("ext_plugin_thread_count_poll_max_backoff", 300) * 1000L;
+
+        final AtomicInteger seq = new AtomicInteger();
+        int threads = Math.max(1, conf.getInt("ext_plugin_thread_count_poll_threads", 8));
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), r -> {
+                    Thread t = new Thread(r, "scouter-alert-thread-poll-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.callers = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "scouter-alert-thread-call-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 조회 시점이 된 에이전트의 스레드 수 조회를 시작하고 바로 반환한다. 시작한 조회 수를 반환한다.
+     */
+    public int poll(int[] objHashes, long now) {
+        // 실패했던 에이전트는 정상 에이전트 뒤에 넣어 작업 스레드를 먼저 붙잡지 않도록 한다.
+        int started = 0;
+        int[] retries = null;
+        int retryCount = 0;
+        for (int objHash : objHashes) {
+            Agent agent = agents.computeIfAbsent(objHash, k -> new Agent());
+            if (!isDue(agent, now)) {
+                continue;
+            }
+            if (agent.failures > 0) {
+                if (retries == null) {
+                    retries = new int[objHashes.length];
+                }
+                retries[retryCount++] = objHash;
+                continue;
+            }
+            if (start(objHash, agent)) {
+                started++;
+            }
+        }
+        for (int i = 0; i < retryCount; i++) {
+            Agent agent = agents.get(retries[i]);
+            if (agent != null && start(retries[i], agent)) {
+                started++;
+            }
+        }
+        return started;
+    }
+
+    private boolean isDue(Agent agent, long now) {
+        return !agent.inFlight && !agent.calling && now >= agent.nextDue && now - agent.counterTime >= COUNTER_STALE_MILLIS;
+    }
+
+    private boolean start(int objHash, Agent agent) {
+        agent.inFlight = true;
+        try {
+            workers.execute(() -> fetch(objHash, agent));
+            polls.incrementAndGet();
+            return true;
+        } catch (RejectedExecutionException e) {
+            agent.inFlight = false;
+            return false;
+        }
+    }
+
+    /**
+     * 카운터로 스레드 수를 받은 에이전트는 카운터가 끊길 때까지 조회하지 않는다.
+     */
+    public void reportCounter(int objHash, long now) {
+        agents.computeIfAbsent(objHash, k -> new Agent()).counterTime = now;
+    }
+
+    public void remove(int objHash) {
+        agents.remove(objHash);
+    }
+
+    /**
+     * 제한 시간 안에 응답하지 않은 조회 수 (누적)
+     */
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    /**
+     * 시작한 조회 수 (누적)
+     */
+    public long getPolls() {
+        return polls.get();
+    }
+
+    /**
+     * 조회 실패 수 (누적, 제한 시간 초과 포함)
+     */
+    public long getFailures() {
+        return failures.get();
+    }
+
+    private void fetch(int objHash, Agent agent) {
+        // 제한 시간은 조회를 시작한 시점부터 (대기열에서 기다린 시간은 느린 에이전트 탓이므로 제외)
+        try {
+            int count = -1;
+            boolean late = false;
+            Future<Integer> call = null;
+            try {
+                call = callers.submit(() -> call(objHash, agent));
+                count = call.get(timeout, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                late = true;
+                call.cancel(true);
+            } catch (ExecutionException e) {
+                Logger.println("[Error] : thread count poll failed (" + objHash + ") - " + e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RejectedExecutionException e) {
+                // 종료 중
+            }
+
+            long now = System.currentTimeMillis();
+            if (count >= 0) {
+                long interval = nextInterval(agent.lastCount, agent.lastTime, count, now,
+                        threshold.applyAsInt(objHash), minInterval, maxInterval);
+                agent.failures = 0;
+                agent.lastCount = count;
+                agent.lastTime = now;
+                agent.nextDue = now + interval;
+                listener.threadCount(objHash, count);
+                return;
+            }
+
+            if (late) {
+                timeouts.incrementAndGet();
+            }
+            failures.incrementAndGet();
+            int shift = Math.min(agent.failures++, MAX_BACKOFF_SHIFT);
+            agent.nextDue = now + Math.min(Math.max(maxBackoff, minInterval), minInterval << shift);
+        } finally {
+            agent.inFlight = false;
+        }
+    }
+
+    /**
+     * 호출 스레드에서 실행한다. 작업 스레드가 기다리기를 포기해도 호출이 끝날 때까지 calling을 유지한다.
+     */
+    private int call(int objHash, Agent agent) throws Exception {
+        agent.calling = true;
+        try {
+            return fetcher.fetch(objHash);
+        } finally {
+            agent.calling = false;
+        }
+    }
+
+    /**
+     * 이번 조회 결과로 다음 조회까지의 간격을 정한다.
+     *
+     * @param lastCount 이전 조회 결과 (lastTime이 0이면 없음)
+     */
+    static long nextInterval(int lastCount, long lastTime, int count, long now, int threshold, long minInterval,
+            long maxInterval) {
+        if (threshold <= 0) {
+            return maxInterval;
+        }
+        if (count >= threshold) {
+            return minInterval;
+        }
+
+        double ratio = (double) count / threshold;
+        double scale = Math.min(1, Math.max(0, (NEAR - ratio) / (NEAR - FAR)));
+        long interval = minInterval + (long) ((maxInterval - minInterval) * scale);
+
+        // 늘고 있으면 지금 추세로 임계값에 닿기까지 남은 시간의 절반 안에 다시 조회
+        if (lastTime > 0 && count > lastCount) {
+            double perMillis = (double) (count - lastCount) / Math.max(1, now - lastTime);
+            long remaining = (long) ((threshold - count) / perMillis);
+            interval = Math.min(interval, remaining / 2);
+        }
+        return Math.max(minInterval, Math.min(maxInterval, interval));
+    }
+
+    /**
+     * 에이전트의 현재 스레드 수 조회. 조회할 수 없으면 음수
+     */
+    public interface Fetcher {
+        int fetch(int objHash) throws Exception;
+    }
+
+    public interface Listener {
+        void threadCount(int objHash, int threadCount);
+    }
+
+    /**
+     * 에이전트별 조회 상태. 조회는 에이전트마다 하나만 진행하므로 inFlight를 넘겨받은 스레드만 나머지 필드를 변경한다.
+     * calling은 에이전트 호출이 실제로 진행 중인지 여부이며, 제한 시간이 지나 inFlight가 풀린 뒤에도 호출이 끝날 때까지 유지된다.
+     */
+    private static final class Agent {
+        volatile boolean inFlight;
+        volatile boolean calling;
+        volatile long nextDue;
+        volatile long counterTime = Long.MIN_VALUE / 2;
+        int failures;
+        int lastCount;
+        long lastTime;
+    }
+}
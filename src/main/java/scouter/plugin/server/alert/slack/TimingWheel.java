@@ -0,0 +1,164 @@
+package scouter.plugin.server.alert.slack;
+
+import java.util.Arrays;
+
+/**
+ * 계층형 타이밍 휠 (1초 단위)
+ *
+ * 단계마다 64칸이며 0단계는 64초, 1단계는 약 68분, 2단계는 약 73시간, 3단계는 약 194일 안의 만료 시각을 담는다.
+ * 만료 시각에 맞는 단계의 칸에 O(1)로 넣고, 상위 단계의 칸은 차례가 오면 남은 시간에 맞는 하위 단계로 내려 보낸다.
+ * 항목(종류, 키, ticket, 만료 시각)은 기본형 배열에 보관하고 칸마다 배열 인덱스로 연결하므로 항목마다 객체를 만들지 않는다.
+ *
+ * {@link #schedule}은 여러 스레드에서 호출할 수 있고, {@link #advance}는 타이머 스레드 하나에서만 호출한다.
+ */
+public class TimingWheel {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long SPAN = 1L << (BITS * LEVELS); // (tick)
+    private static final long TICK = 1000L; // (ms)
+    private static final int NONE = -1;
+
+    private final int[] heads = new int[LEVELS * SLOTS];
+
+    private byte[] kinds;
+    private long[] keys;
+    private int[] tickets;
+    private long[] deadlines;
+    private int[] next;
+    private int free = NONE;
+    private int allocated;
+    private int size;
+
+    private long currentTick;
+
+    // advance에서 만료된 항목을 잠금 밖으로 넘기기 위한 버퍼 (타이머 스레드 전용)
+    private byte[] firedKinds = new byte[64];
+    private long[] firedKeys = new long[64];
+    private int[] firedTickets = new int[64];
+
+    public TimingWheel(long now, int initialCapacity) {
+        Arrays.fill(heads, NONE);
+        int capacity = Math.max(16, initialCapacity);
+        this.kinds = new byte[capacity];
+        this.keys = new long[capacity];
+        this.tickets = new int[capacity];
+        this.deadlines = new long[capacity];
+        this.next = new int[capacity];
+        this.currentTick = now / TICK;
+    }
+
+    /**
+     * deadline(ms) 이후의 첫 tick에 만료되도록 등록한다. 이미 지난 시각이면 다음 tick에 만료된다.
+     */
+    public synchronized void schedule(byte kind, long key, int ticket, long deadline) {
+        int e = allocate();
+        kinds[e] = kind;
+        keys[e] = key;
+        tickets[e] = ticket;
+        deadlines[e] = deadline;
+        place(e, currentTick + 1);
+        size++;
+    }
+
+    /**
+     * now까지 지난 tick을 진행하며 만료된 항목마다 listener를 호출한다. (listener는 잠금 밖에서 호출되므로 다시 등록해도 된다)
+     */
+    public void advance(long now, Listener listener) {
+        int fired = 0;
+        synchronized (this) {
+            long target = now / TICK;
+            while (currentTick < target) {
+                currentTick++;
+                // 상위 단계부터 내려 보내야 같은 tick에 만료될 항목이 0단계 칸에 모인다.
+                for (int level = LEVELS - 1; level > 0; level--) {
+                    if ((currentTick & ((1L << (BITS * level)) - 1)) == 0) {
+                        cascade(level);
+                    }
+                }
+
+                int slot = (int) (currentTick & MASK);
+                int e = heads[slot];
+                heads[slot] = NONE;
+                while (e != NONE) {
+                    int n = next[e];
+                    if (fired == firedKinds.length) {
+                        firedKinds = Arrays.copyOf(firedKinds, fired * 2);
+                        firedKeys = Arrays.copyOf(firedKeys, fired * 2);
+                        firedTickets = Arrays.copyOf(firedTickets, fired * 2);
+                    }
+                    firedKinds[fired] = kinds[e];
+                    firedKeys[fired] = keys[e];
+                    firedTickets[fired] = tickets[e];
+                    fired++;
+                    release(e);
+                    e = n;
+                }
+            }
+        }
+
+        for (int i = 0; i < fired; i++) {
+            listener.expired(firedKinds[i], firedKeys[i], firedTickets[i]);
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void cascade(int level) {
+        int slot = level * SLOTS + (int) ((currentTick >>> (BITS * level)) & MASK);
+        int e = heads[slot];
+        heads[slot] = NONE;
+        while (e != NONE) {
+            int n = next[e];
+            place(e, currentTick);
+            e = n;
+        }
+    }
+
+    /**
+     * 남은 tick 수에 맞는 단계의 칸에 넣는다. minTick보다 이른 항목은 minTick에 만료된다.
+     */
+    private void place(int e, long minTick) {
+        long tick = Math.max((deadlines[e] + TICK - 1) / TICK, minTick);
+        long delta = tick - currentTick;
+        if (delta >= SPAN) {
+            // 가장 먼 단계보다 뒤이면 일단 마지막 칸에 두고, 내려올 때 다시 계산한다.
+            tick = currentTick + SPAN - 1;
+            delta = SPAN - 1;
+        }
+        int level = delta < SLOTS ? 0 : (63 - Long.numberOfLeadingZeros(delta)) / BITS;
+        int slot = level * SLOTS + (int) ((tick >>> (BITS * level)) & MASK);
+        next[e] = heads[slot];
+        heads[slot] = e;
+    }
+
+    private int allocate() {
+        if (free != NONE) {
+            int e = free;
+            free = next[e];
+            return e;
+        }
+        if (allocated == kinds.length) {
+            int capacity = allocated * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+            tickets = Arrays.copyOf(tickets, capacity);
+            deadlines = Arrays.copyOf(deadlines, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        return allocated++;
+    }
+
+    private void release(int e) {
+        next[e] = free;
+        free = e;
+        size--;
+    }
+
+    public interface Listener {
+        void expired(byte kind, long key, int ticket);
+    }
+}
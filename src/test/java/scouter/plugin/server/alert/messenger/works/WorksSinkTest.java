@@ -0,0 +1,146 @@
+package scouter.plugin.server.alert.messenger.works;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+
+import scouter.lang.AlertLevel;
+import scouter.plugin.server.alert.slack.AlertMessage;
+
+/**
+ * renderText(), renderFlex()는 이전의 Gson 직렬화(new Gson().toJson(WorksBotMessage))를 UTF-8로 인코딩한 것과 같은 본문을 만들어야 한다.
+ */
+public class WorksSinkTest {
+    private static final String[] TEXTS = {
+            "plain",
+            "quote \" backslash \\ slash /",
+            "html <script>alert('x')</script> & =",
+            "control \n\r\t\b\f \u0000 \u0001 \u001f \u007f",
+            "line separators    ",
+            "한글 알림 메시지",
+            "emoji 😀 🔥",
+            "lone surrogates \uD83D x \uDE00",
+            "" };
+
+    @Test
+    public void singleMessageMatchesGson() {
+        for (String text : TEXTS) {
+            List<AlertMessage> messages = Collections.singletonList(message(text, AlertLevel.WARN));
+            assertThat(text(messages)).isEqualTo(gson(textModel(messages)));
+            assertThat(flex(messages)).isEqualTo(gson(flexModel(messages)));
+        }
+    }
+
+    @Test
+    public void digestMatchesGson() {
+        List<AlertMessage> messages = new ArrayList<AlertMessage>();
+        for (String text : TEXTS) {
+            messages.add(message(text, AlertLevel.ERROR));
+            messages.add(message(text, AlertLevel.FATAL));
+        }
+        assertThat(text(messages)).isEqualTo(gson(textModel(messages)));
+        assertThat(flex(messages)).isEqualTo(gson(flexModel(messages)));
+    }
+
+    private static AlertMessage message(String text, byte level) {
+        return new AlertMessage(1, "tomcat <" + text + ">", "/host/" + text, level, "title " + text,
+                "message " + text, System.currentTimeMillis());
+    }
+
+    private static String text(List<AlertMessage> messages) {
+        return new String(WorksSink.renderText(messages), StandardCharsets.UTF_8);
+    }
+
+    private static String flex(List<AlertMessage> messages) {
+        return new String(WorksSink.renderFlex(messages), StandardCharsets.UTF_8);
+    }
+
+    private static String gson(WorksBotMessage message) {
+        // 짝이 없는 surrogate는 전송 시 UTF-8 인코딩에서 '?'로 바뀐다.
+        return new String(new Gson().toJson(message).getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+
+    private static WorksBotMessage textModel(List<AlertMessage> messages) {
+        WorksBotMessage worksMessage = new WorksBotMessage();
+        worksMessage.content = new WorksBotMessage.Content();
+        worksMessage.content.type = "text";
+        worksMessage.content.text = AlertMessage.toDigestText(messages);
+        return worksMessage;
+    }
+
+    /**
+     * 템플릿으로 바꾸기 전의 Flex 메시지 구성
+     */
+    private static WorksBotMessage flexModel(List<AlertMessage> messages) {
+        WorksBotMessage worksMessage = new WorksBotMessage();
+        worksMessage.content = new WorksBotMessage.Content();
+        worksMessage.content.type = "flex";
+        worksMessage.content.altText = messages.size() == 1
+                ? String.format("[ALERT] %s", messages.get(0).title)
+                : String.format("[ALERT] %d alerts", messages.size());
+
+        WorksBotMessage.FlexContent flexContent = new WorksBotMessage.FlexContent();
+        flexContent.header = new WorksBotMessage.Box();
+        flexContent.header.type = "box";
+        flexContent.header.layout = "vertical";
+        flexContent.header.backgroundColor = "#D32F2F";
+        WorksBotMessage.BoxContent headerText = new WorksBotMessage.BoxContent();
+        headerText.type = "text";
+        headerText.text = "모니터링 알람(Alert)";
+        headerText.weight = "bold";
+        headerText.color = "#FFFFFF";
+        headerText.size = "md";
+        flexContent.header.contents = new WorksBotMessage.BoxContent[] { headerText };
+
+        flexContent.body = new WorksBotMessage.Box();
+        flexContent.body.type = "box";
+        flexContent.body.layout = "vertical";
+        flexContent.body.spacing = "sm";
+        if (messages.size() == 1) {
+            AlertMessage m = messages.get(0);
+            flexContent.body.contents = new WorksBotMessage.BoxContent[] {
+                    bodyText(String.format("[TYPE] : %s", m.objType.toUpperCase())),
+                    bodyText(String.format("[NAME] : %s", m.name)),
+                    bodyText(String.format("[LEVEL] : %s", m.getLevelName())),
+                    bodyText(String.format("[TITLE] : %s", m.title)),
+                    bodyText(String.format("[MESSAGE] : %s", m.message)) };
+        } else {
+            List<String> sections = AlertMessage.toSections(messages);
+            flexContent.body.contents = new WorksBotMessage.BoxContent[sections.size() + 1];
+            flexContent.body.contents[0] = bodyText(String.format("[DIGEST] %d alerts", messages.size()));
+            for (int i = 0; i < sections.size(); i++) {
+                flexContent.body.contents[i + 1] = bodyText(sections.get(i));
+            }
+        }
+
+        flexContent.footer = new WorksBotMessage.Box();
+        flexContent.footer.type = "box";
+        flexContent.footer.layout = "vertical";
+        flexContent.footer.backgroundColor = "#0070C0";
+        WorksBotMessage.BoxContent footerText = new WorksBotMessage.BoxContent();
+        footerText.type = "text";
+        footerText.text = "확인 바랍니다.";
+        footerText.align = "center";
+        footerText.color = "#FFFFFF";
+        footerText.size = "sm";
+        flexContent.footer.contents = new WorksBotMessage.BoxContent[] { footerText };
+        worksMessage.content.contents = flexContent;
+        return worksMessage;
+    }
+
+    private static WorksBotMessage.BoxContent bodyText(String text) {
+        WorksBotMessage.BoxContent content = new WorksBotMessage.BoxContent();
+        content.type = "text";
+        content.text = text;
+        content.wrap = true;
+        content.size = "sm";
+        return content;
+    }
+}
@@ -0,0 +1,250 @@
+package scouter.plugin.server.alert.slack;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AlertHistoryStoreTest {
+    private static final long MINUTE = 60 * 1000L;
+
+    @Test
+    public void advanceFollowsWindowTransitions() {
+        AlertHistoryStore store = new AlertHistoryStore(100, 1);
+        long key = AlertHistoryStore.key(10, 20);
+        long now = System.currentTimeMillis();
+
+        assertThat(advance(store, key, now, true).state).isEqualTo(AlertHistoryStore.FIRST);
+        assertThat(advance(store, key, now + 1000, true).historyCount).isEqualTo(1);
+        assertThat(advance(store, key, now + 2000, true).historyCount).isEqualTo(2);
+
+        AlertHistoryStore.Transition t = advance(store, key, now + MINUTE, true);
+        assertThat(t.state).isEqualTo(AlertHistoryStore.ALERT);
+        assertThat(t.historyCount).isEqualTo(2);
+        assertThat(t.diff).isEqualTo(MINUTE);
+
+        t = advance(store, key, now + 3 * MINUTE + 1, true);
+        assertThat(t.state).isEqualTo(AlertHistoryStore.RESET);
+    }
+
+    @Test
+    public void skipKeepsHistory() {
+        AlertHistoryStore store = new AlertHistoryStore(100, 1);
+        long key = AlertHistoryStore.key(1, 1);
+        long now = System.currentTimeMillis();
+
+        advance(store, key, now, false);
+        advance(store, key, now + 1000, false);
+        AlertHistoryStore.Transition t = advance(store, key, now + MINUTE + 1000, false);
+        assertThat(t.state).isEqualTo(AlertHistoryStore.SKIP);
+        assertThat(t.historyCount).isEqualTo(1);
+
+        t = advance(store, key, now + MINUTE + 2000, true);
+        assertThat(t.state).isEqualTo(AlertHistoryStore.ALERT);
+        assertThat(t.historyCount).isEqualTo(1);
+    }
+
+    @Test
+    public void kindsAreSeparatePatterns() {
+        AlertHistoryStore store = new AlertHistoryStore(100, 1);
+        long key = AlertHistoryStore.key(1, 1);
+        long now = System.currentTimeMillis();
+
+        assertThat(store.advance(AlertKind.ERROR, key, now, MINUTE, (c, d) -> true, 0, 0, 0).state)
+                .isEqualTo(AlertHistoryStore.FIRST);
+        assertThat(store.advance(AlertKind.ELAPSED, key, now, MINUTE, (c, d) -> true, 0, 0, 0).state)
+                .isEqualTo(AlertHistoryStore.FIRST);
+        assertThat(store.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void keySplitsIntoObjHashAndId() {
+        long key = AlertHistoryStore.key(-5, -7);
+        assertThat(AlertHistoryStore.objHash(key)).isEqualTo(-5);
+        assertThat(AlertHistoryStore.id(key)).isEqualTo(-7);
+    }
+
+    @Test
+    public void evictionBoundsSize() {
+        AlertHistoryStore store = new AlertHistoryStore(100, 4);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 10000; i++) {
+            advance(store, AlertHistoryStore.key(i, i), now + i, true);
+        }
+        // 구역마다 max / 구역 수 + 1 (최소 16)까지 보관한다.
+        assertThat(store.size()).isLessThanOrEqualTo(4 * 26);
+    }
+
+    /**
+     * 무작위 연산 결과를 HashMap 모델과 비교한다. (제거가 자주 일어나도록 키 범위를 최대 개수보다 크게 둔다)
+     */
+    @Test
+    public void matchesHashMapModel() {
+        Random random = new Random(42);
+        AlertHistoryStore store = new AlertHistoryStore(64, 1);
+        Map<Long, long[]> model = new HashMap<Long, long[]>(); // {lastModified, count}
+        long now = System.currentTimeMillis();
+
+        for (int op = 0; op < 200000; op++) {
+            now += random.nextInt(5000);
+            byte kind = (byte) (1 + random.nextInt(3));
+            long key = AlertHistoryStore.key(random.nextInt(20), random.nextInt(10));
+            boolean alert = random.nextInt(4) != 0;
+            long modelKey = key * 8 + kind;
+
+            AlertHistoryStore.Transition t = store.advance(kind, key, now, MINUTE, (c, d) -> alert, 0, 0, 0);
+            long[] state = model.get(modelKey);
+            if (t.state == AlertHistoryStore.FIRST) {
+                // 제거된 패턴이면 모델에서도 지운 것으로 본다.
+                model.put(modelKey, new long[] { now, 0 });
+                continue;
+            }
+
+            assertThat(state).as("op %d", op).isNotNull();
+            long diff = now - state[0];
+            assertThat(t.diff).isEqualTo(diff);
+            if (diff < MINUTE) {
+                state[1]++;
+                assertThat(t.state).isEqualTo(AlertHistoryStore.NOT_YET);
+                assertThat(t.historyCount).isEqualTo((int) state[1]);
+            } else if (diff < 2 * MINUTE) {
+                assertThat(t.historyCount).isEqualTo((int) state[1]);
+                if (alert) {
+                    assertThat(t.state).isEqualTo(AlertHistoryStore.ALERT);
+                    state[0] = now;
+                    state[1] = 0;
+                } else {
+                    assertThat(t.state).isEqualTo(AlertHistoryStore.SKIP);
+                }
+            } else {
+                assertThat(t.state).isEqualTo(AlertHistoryStore.RESET);
+                state[0] = now;
+                state[1] = 0;
+            }
+        }
+        assertThat(store.size()).isLessThanOrEqualTo(model.size());
+    }
+
+    /**
+     * 여러 스레드가 같은 패턴들을 동시에 진행해도 횟수가 빠지지 않아야 한다.
+     */
+    @Test
+    public void concurrentAdvanceLosesNoCounts() throws Exception {
+        final int threads = 8;
+        final int patterns = 8;
+        final int perThread = 100000;
+        final AlertHistoryStore store = new AlertHistoryStore(1000, 4);
+        final long now = System.currentTimeMillis();
+        for (int p = 0; p < patterns; p++) {
+            advance(store, AlertHistoryStore.key(p, p), now, true);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            Future<?>[] futures = new Future<?>[threads];
+            for (int t = 0; t < threads; t++) {
+                final int seed = t;
+                futures[t] = executor.submit(() -> {
+                    Random random = new Random(seed);
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        int p = random.nextInt(patterns);
+                        advance(store, AlertHistoryStore.key(p, p), now + 1, true);
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long total = 0;
+        for (int p = 0; p < patterns; p++) {
+            AlertHistoryStore.Transition t = advance(store, AlertHistoryStore.key(p, p), now + MINUTE, true);
+            assertThat(t.state).isEqualTo(AlertHistoryStore.ALERT);
+            total += t.historyCount;
+        }
+        assertThat(total).isEqualTo((long) threads * perThread);
+    }
+
+    @Test
+    public void expireFlushesEndedWindowWithLastEvent() {
+        AlertHistoryStore store = new AlertHistoryStore(100, 1);
+        long key = AlertHistoryStore.key(3, 4);
+        long now = System.currentTimeMillis();
+        store.advance(AlertKind.ELAPSED, key, now, MINUTE, (c, d) -> true, 100, 50, now);
+        store.advance(AlertKind.ELAPSED, key, now + 1000, MINUTE, (c, d) -> true, 200, 50, now + 1000);
+        store.advance(AlertKind.ELAPSED, key, now + 2000, MINUTE, (c, d) -> true, 300, 60, now + 2000);
+
+        List<AlertHistoryStore.Expired> flushed = new ArrayList<AlertHistoryStore.Expired>();
+        store.expire(now + MINUTE - 1000, flushed::add);
+        assertThat(flushed).isEmpty();
+
+        store.expire(now + MINUTE + 1000, flushed::add);
+        assertThat(flushed).hasSize(1);
+        AlertHistoryStore.Expired expired = flushed.get(0);
+        assertThat(expired.kind).isEqualTo(AlertKind.ELAPSED);
+        assertThat(expired.key).isEqualTo(key);
+        assertThat(expired.historyCount).isEqualTo(2);
+        assertThat(expired.value).isEqualTo(300.0);
+        assertThat(expired.threshold).isEqualTo(60);
+        assertThat(expired.endTime).isEqualTo(now + 2000);
+        assertThat(expired.intervalMillis).isEqualTo(MINUTE);
+        assertThat(store.size()).isEqualTo(1);
+
+        // 초기화된 구간과 그다음 구간 동안 이벤트가 없으면 알림 없이 제거
+        store.expire(now + 4 * MINUTE, flushed::add);
+        assertThat(flushed).hasSize(1);
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    public void expireRetiresIdlePatternAfterTwoWindows() {
+        AlertHistoryStore store = new AlertHistoryStore(100, 1);
+        long now = System.currentTimeMillis();
+        advance(store, AlertHistoryStore.key(1, 1), now, true);
+
+        List<AlertHistoryStore.Expired> flushed = new ArrayList<AlertHistoryStore.Expired>();
+        store.expire(now + MINUTE + 1000, flushed::add);
+        assertThat(store.size()).isEqualTo(1);
+        store.expire(now + 2 * MINUTE + 1000, flushed::add);
+        assertThat(store.size()).isZero();
+        assertThat(flushed).isEmpty();
+    }
+
+    @Test
+    public void expireKeepsWindowRestartedByEvent() {
+        AlertHistoryStore store = new AlertHistoryStore(100, 1);
+        long key = AlertHistoryStore.key(1, 1);
+        long now = System.currentTimeMillis();
+        advance(store, key, now, true);
+        advance(store, key, now + 1000, true);
+        // 다음 이벤트가 구간을 끝내고 새 구간을 시작함
+        assertThat(advance(store, key, now + MINUTE + 500, true).state).isEqualTo(AlertHistoryStore.ALERT);
+
+        List<AlertHistoryStore.Expired> flushed = new ArrayList<AlertHistoryStore.Expired>();
+        store.expire(now + MINUTE + 2000, flushed::add);
+        assertThat(flushed).isEmpty();
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    private static AlertHistoryStore.Transition advance(AlertHistoryStore store, long key, long now,
+            boolean alert) {
+        return store.advance(AlertKind.ERROR, key, now, MINUTE, (historyCount, diff) -> alert, 0, 0, 0);
+    }
+}
@@ -0,0 +1,100 @@
+package scouter.plugin.server.alert.slack;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Properties;
+
+import org.junit.Test;
+
+import scouter.lang.AlertLevel;
+
+public class CounterRuleSetTest {
+
+    @Test
+    public void parseEachOperator() {
+        assertRule("HeapUsed >= 1024", ">=", 1023, 1024);
+        assertRule("HeapUsed <= 1024", "<=", 1025, 1024);
+        assertRule("HeapUsed > 1024", ">", 1024, 1025);
+        assertRule("HeapUsed < 1024", "<", 1024, 1023);
+        assertRule("HeapUsed == 1024", "==", 1023, 1024);
+        assertRule("HeapUsed>1024", ">", 1024, 1025);
+    }
+
+    @Test
+    public void parseAppliesDefaults() {
+        CounterRuleSet.Rule rule = CounterRuleSet.Rule.parse("cpu", "Cpu > 90");
+        assertThat(rule.counter).isEqualTo("Cpu");
+        assertThat(rule.threshold).isEqualTo(90.0);
+        assertThat(rule.interval).isEqualTo(5);
+        assertThat(rule.level).isEqualTo(AlertLevel.WARN);
+        assertThat(rule.family).isNull();
+
+        rule = CounterRuleSet.Rule.parse("cpu", "Cpu > 90, 0, error, javaee");
+        assertThat(rule.interval).isEqualTo(1);
+        assertThat(rule.level).isEqualTo(AlertLevel.ERROR);
+        assertThat(rule.family).isEqualTo("javaee");
+    }
+
+    @Test
+    public void parseRejectsMalformedOperators() {
+        assertInvalid("Cpu => 90");
+        assertInvalid("Cpu =< 90");
+        assertInvalid("Cpu != 90");
+        assertInvalid("Cpu = 90");
+        assertInvalid("Cpu >== 90");
+        assertInvalid("Cpu Used > 90");
+        assertInvalid("> 90");
+        assertInvalid("Cpu > ninety");
+    }
+
+    @Test
+    public void parseRejectsUnknownLevel() {
+        assertInvalid("Cpu > 90, 3, WARNING");
+        assertInvalid("Cpu > 90, 3, INFOO");
+        assertThat(CounterRuleSet.Rule.parse("cpu", "Cpu > 90, 3, INFO").level).isEqualTo(AlertLevel.INFO);
+        assertThat(CounterRuleSet.Rule.parse("cpu", "Cpu > 90, 3, fatal").level).isEqualTo(AlertLevel.FATAL);
+    }
+
+    @Test
+    public void compileFiltersByFamilyAndGroup() {
+        Properties property = new Properties();
+        property.setProperty("ext_plugin_counter_rule.heap", "HeapUsed > 1024, 5, WARN");
+        property.setProperty("ext_plugin_counter_rule.active", "ActiveService > 100, 5, WARN, javaee");
+        property.setProperty("ext_plugin_counter_rule.cpu", "Cpu >= 90, 3, ERROR");
+        property.setProperty("order_jvm.ext_plugin_counter_rule.heap", "HeapUsed > 2048, 5, ERROR");
+        property.setProperty("batch_jvm.ext_plugin_counter_rule.cpu", "off");
+
+        CounterRuleSet order = CounterRuleSet.compile(property, "order_jvm", "javaee");
+        assertThat(order.rules).hasSize(3);
+        CounterRuleSet.Rule heap = order.find(CounterRuleSet.Rule.parse("heap", "HeapUsed > 0").id);
+        assertThat(heap.threshold).isEqualTo(2048.0);
+        assertThat(heap.level).isEqualTo(AlertLevel.ERROR);
+
+        CounterRuleSet batch = CounterRuleSet.compile(property, "batch_jvm", "javaee");
+        assertThat(batch.rules).hasSize(2);
+        assertThat(batch.find(CounterRuleSet.Rule.parse("cpu", "Cpu > 0").id)).isNull();
+
+        CounterRuleSet host = CounterRuleSet.compile(property, "linux", "host");
+        assertThat(host.rules).hasSize(2);
+        assertThat(host.find(CounterRuleSet.Rule.parse("active", "ActiveService > 0").id)).isNull();
+
+        assertThat(CounterRuleSet.compile(new Properties(), "linux", "host").isEmpty()).isTrue();
+    }
+
+    private static void assertRule(String spec, String operator, double below, double above) {
+        CounterRuleSet.Rule rule = CounterRuleSet.Rule.parse("rule", spec);
+        assertThat(rule.counter).isEqualTo("HeapUsed");
+        assertThat(rule.operator).isEqualTo(operator);
+        assertThat(rule.matches(below)).isFalse();
+        assertThat(rule.matches(above)).isTrue();
+    }
+
+    private static void assertInvalid(String spec) {
+        try {
+            CounterRuleSet.Rule.parse("rule", spec);
+        } catch (IllegalArgumentException expected) {
+            return;
+        }
+        throw new AssertionError("accepted " + spec);
+    }
+}
@@ -0,0 +1,96 @@
+package scouter.plugin.server.alert.slack;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+    private static final long SLOT = 1000L;
+
+    @Test
+    public void bucketRoundTripsOverEdges() {
+        int last = -1;
+        for (int value = 0; value <= LatencyHistogram.MAX_VALUE; value++) {
+            int bucket = LatencyHistogram.bucket(value);
+            assertThat(bucket).isBetween(last, last + 1);
+            int upper = LatencyHistogram.highestEquivalentValue(bucket);
+            assertThat(upper).isGreaterThanOrEqualTo(value);
+            assertThat(upper - value).isLessThanOrEqualTo(Math.max(0, value / 8));
+            if (bucket != last && bucket > 0) {
+                // 새 버킷의 첫 값은 이전 버킷 상한의 바로 다음 값
+                assertThat(LatencyHistogram.highestEquivalentValue(bucket - 1)).isEqualTo(value - 1);
+            }
+            last = bucket;
+        }
+        assertThat(last).isEqualTo(LatencyHistogram.BUCKETS - 1);
+    }
+
+    @Test
+    public void bucketClampsOutOfRangeValues() {
+        assertThat(LatencyHistogram.bucket(-5)).isEqualTo(0);
+        assertThat(LatencyHistogram.bucket(LatencyHistogram.MAX_VALUE + 1)).isEqualTo(LatencyHistogram.BUCKETS - 1);
+        assertThat(LatencyHistogram.bucket(Integer.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKETS - 1);
+        assertThat(LatencyHistogram.highestEquivalentValue(LatencyHistogram.BUCKETS - 1))
+                .isEqualTo(LatencyHistogram.MAX_VALUE);
+
+        LatencyHistogram histogram = new LatencyHistogram(1, SLOT);
+        histogram.record(0, Integer.MAX_VALUE);
+        histogram.record(SLOT, 1);
+        assertThat(histogram.percentile(100)).isEqualTo(LatencyHistogram.MAX_VALUE);
+    }
+
+    @Test
+    public void percentilesOfKnownDistribution() {
+        LatencyHistogram histogram = new LatencyHistogram(1, SLOT);
+        for (int value = 1; value <= 10000; value++) {
+            histogram.record(0, value);
+        }
+        assertThat(histogram.percentile(50)).isEqualTo(0); // 현재 slot은 구간에 포함되지 않음
+        assertThat(histogram.record(SLOT, 1)).isTrue();
+
+        assertThat(histogram.count()).isEqualTo(10000);
+        for (double p : new double[] { 1, 10, 50, 90, 99, 99.9, 100 }) {
+            int expected = (int) Math.ceil(10000 * p / 100.0);
+            int actual = histogram.percentile(p);
+            assertThat(actual).isGreaterThanOrEqualTo(expected);
+            assertThat((actual - expected) / (double) expected).isLessThanOrEqualTo(0.125);
+        }
+    }
+
+    @Test
+    public void skippedEpochsExpireOldSlots() {
+        LatencyHistogram histogram = new LatencyHistogram(2, SLOT);
+        assertThat(histogram.record(0, 100)).isFalse();
+        assertThat(histogram.record(SLOT, 200)).isTrue();
+        assertThat(histogram.record(2 * SLOT, 300)).isTrue();
+        assertThat(histogram.count()).isEqualTo(2);
+
+        // slot 3개를 건너뛰면 이전 기록은 모두 구간을 벗어난다.
+        assertThat(histogram.record(5 * SLOT, 400)).isTrue();
+        assertThat(histogram.count()).isEqualTo(0);
+        assertThat(histogram.percentile(50)).isEqualTo(0);
+
+        // 재사용된 slot은 이전 epoch의 기록 없이 시작한다.
+        assertThat(histogram.record(6 * SLOT, 500)).isTrue();
+        assertThat(histogram.count()).isEqualTo(1);
+        assertThat(histogram.percentile(100)).isEqualTo(LatencyHistogram.highestEquivalentValue(
+                LatencyHistogram.bucket(400)));
+    }
+
+    @Test
+    public void lateRecordsOutsideWindowAreIgnored() {
+        LatencyHistogram histogram = new LatencyHistogram(2, SLOT);
+        histogram.record(10 * SLOT, 100);
+        histogram.record(11 * SLOT, 100);
+
+        // 구간 안의 늦은 XLog는 해당 slot에 기록되며 회전시키지 않는다.
+        assertThat(histogram.record(10 * SLOT + 500, 100)).isFalse();
+        histogram.record(12 * SLOT, 100);
+        assertThat(histogram.count()).isEqualTo(3);
+
+        // 구간을 벗어난 XLog는 버리고 현재 slot을 덮어쓰지 않는다.
+        assertThat(histogram.record(9 * SLOT, 5000)).isFalse();
+        assertThat(histogram.count()).isEqualTo(3);
+        assertThat(histogram.percentile(100)).isLessThan(200);
+    }
+}
@@ -0,0 +1,77 @@
+package scouter.plugin.server.alert.slack;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+
+import scouter.lang.AlertLevel;
+
+/**
+ * render()는 이전의 Gson 직렬화(new Gson().toJson(Message))를 UTF-8로 인코딩한 것과 같은 본문을 만들어야 한다.
+ */
+public class SlackSinkTest {
+    private static final String[] TEXTS = {
+            "plain",
+            "quote \" backslash \\ slash /",
+            "html <script>alert('x')</script> & =",
+            "control \n\r\t\b\f \u0000 \u0001 \u001f \u007f",
+            "line separators    ",
+            "한글 알림 메시지",
+            "emoji 😀 🔥",
+            "lone surrogates \uD83D x \uDE00",
+            "" };
+
+    @Test
+    public void singleMessageMatchesGson() {
+        SlackDestination destination = new SlackDestination("https://hooks.example/x", "#alert", "scouter",
+                "https://example/icon.png", ":ghost:", false);
+        for (String text : TEXTS) {
+            List<AlertMessage> messages = Collections.singletonList(message(text, AlertLevel.WARN));
+            assertThat(render(destination, messages)).isEqualTo(gson(destination, messages));
+        }
+    }
+
+    @Test
+    public void digestMatchesGson() {
+        SlackDestination destination = new SlackDestination("https://hooks.example/x", "#alert \"<&>\"", null,
+                null, null, false);
+        List<AlertMessage> messages = new ArrayList<AlertMessage>();
+        for (String text : TEXTS) {
+            messages.add(message(text, AlertLevel.ERROR));
+            messages.add(message(text, AlertLevel.FATAL));
+        }
+        assertThat(render(destination, messages)).isEqualTo(gson(destination, messages));
+    }
+
+    @Test
+    public void nullFieldsAreOmitted() {
+        SlackDestination destination = new SlackDestination("https://hooks.example/x", null, null, null, null,
+                false);
+        List<AlertMessage> messages = Arrays.asList(message("a", AlertLevel.INFO));
+        assertThat(render(destination, messages)).isEqualTo(gson(destination, messages));
+    }
+
+    private static AlertMessage message(String text, byte level) {
+        return new AlertMessage(1, "tomcat", "/host/" + text, level, "title " + text, "message " + text,
+                System.currentTimeMillis());
+    }
+
+    private static String render(SlackDestination destination, List<AlertMessage> messages) {
+        return new String(SlackSink.render(destination, messages), StandardCharsets.UTF_8);
+    }
+
+    private static String gson(SlackDestination destination, List<AlertMessage> messages) {
+        String json = new Gson().toJson(new Message(AlertMessage.toDigestText(messages), destination.channel,
+                destination.botName, destination.iconURL, destination.iconEmoji));
+        // 짝이 없는 surrogate는 전송 시 UTF-8 인코딩에서 '?'로 바뀐다.
+        return new String(json.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,58 @@
+package scouter.plugin.server.alert.slack;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class ThreadCountPollerTest {
+    private static final long MIN = 5000L;
+    private static final long MAX = 30000L;
+    private static final long NOW = 1000000L;
+
+    @Test
+    public void noThresholdUsesMaxInterval() {
+        assertThat(next(0, 0, 500, 0)).isEqualTo(MAX);
+        assertThat(next(0, 0, 500, -1)).isEqualTo(MAX);
+        assertThat(next(10, NOW - 1000, 500, 0)).isEqualTo(MAX);
+    }
+
+    @Test
+    public void atOrAboveThresholdUsesMinInterval() {
+        assertThat(next(0, 0, 100, 100)).isEqualTo(MIN);
+        assertThat(next(0, 0, 150, 100)).isEqualTo(MIN);
+        assertThat(next(200, NOW - 1000, 150, 100)).isEqualTo(MIN);
+    }
+
+    @Test
+    public void intervalScalesBetweenFarAndNear() {
+        assertThat(next(0, 0, 0, 100)).isEqualTo(MAX);
+        assertThat(next(0, 0, 50, 100)).isEqualTo(MAX); // FAR
+        assertThat(next(0, 0, 51, 100)).isLessThan(MAX);
+        assertThat(next(0, 0, 70, 100)).isEqualTo((MIN + MAX) / 2);
+        assertThat(next(0, 0, 89, 100)).isGreaterThan(MIN);
+        assertThat(next(0, 0, 90, 100)).isEqualTo(MIN); // NEAR
+        assertThat(next(0, 0, 99, 100)).isEqualTo(MIN);
+    }
+
+    @Test
+    public void risingTrendCapsInterval() {
+        // 50 -> 60 / 10초 : 남은 40은 40초 뒤이므로 절반인 20초는 기본 간격(23750ms)보다 짧다.
+        assertThat(next(50, NOW - 10000, 60, 100)).isEqualTo(20000L);
+        // 느리게 늘면 기본 간격을 그대로 사용
+        assertThat(next(59, NOW - 10000, 60, 100)).isEqualTo(next(0, 0, 60, 100));
+        // 빠르게 늘어도 최소 간격보다 짧아지지 않는다.
+        assertThat(next(50, NOW - 1000, 60, 100)).isEqualTo(MIN);
+        // 줄고 있으면 추세를 보지 않는다.
+        assertThat(next(70, NOW - 1000, 60, 100)).isEqualTo(next(0, 0, 60, 100));
+    }
+
+    @Test
+    public void trendWithSameTimestampDoesNotDivideByZero() {
+        assertThat(next(50, NOW, 60, 100)).isEqualTo(MIN);
+        assertThat(next(60, NOW, 60, 100)).isEqualTo(next(0, 0, 60, 100));
+    }
+
+    private static long next(int lastCount, long lastTime, int count, int threshold) {
+        return ThreadCountPoller.nextInterval(lastCount, lastTime, count, NOW, threshold, MIN, MAX);
+    }
+}
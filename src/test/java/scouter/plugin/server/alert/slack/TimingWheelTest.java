@@ -0,0 +1,127 @@
+package scouter.plugin.server.alert.slack;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class TimingWheelTest {
+    private static final long SECOND = 1000L;
+    private static final long DAY = 24 * 60 * 60 * SECOND;
+
+    @Test
+    public void firesOnFirstTickAfterDeadline() {
+        long now = 1000000L * SECOND;
+        TimingWheel wheel = new TimingWheel(now, 16);
+        wheel.schedule((byte) 1, 7L, 3, now + 2500);
+
+        List<Long> fired = new ArrayList<Long>();
+        wheel.advance(now + 2999, (kind, key, ticket) -> fired.add(key));
+        assertThat(fired).isEmpty();
+
+        wheel.advance(now + 3000, (kind, key, ticket) -> {
+            assertThat(kind).isEqualTo((byte) 1);
+            assertThat(ticket).isEqualTo(3);
+            fired.add(key);
+        });
+        assertThat(fired).containsExactly(7L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    public void pastDeadlineFiresOnNextTick() {
+        long now = 1000000L * SECOND;
+        TimingWheel wheel = new TimingWheel(now, 16);
+        wheel.schedule((byte) 1, 1L, 1, now - 10 * SECOND);
+
+        List<Long> fired = new ArrayList<Long>();
+        wheel.advance(now + 999, (kind, key, ticket) -> fired.add(key));
+        assertThat(fired).isEmpty();
+        wheel.advance(now + SECOND, (kind, key, ticket) -> fired.add(key));
+        assertThat(fired).containsExactly(1L);
+    }
+
+    /**
+     * 무작위 만료 시각(모든 단계와 최대 범위 밖 포함)이 각각 한 번씩, 만료 시각 이후 첫 tick에 만료되어야 한다.
+     */
+    @Test
+    public void randomDeadlinesFireExactlyOnceOnTime() {
+        Random random = new Random(7);
+        final long start = 1000000L * SECOND + 123;
+        TimingWheel wheel = new TimingWheel(start, 16);
+
+        int count = 20000;
+        final long[] deadlines = new long[count];
+        final long[] firedAt = new long[count];
+        for (int i = 0; i < count; i++) {
+            long delay;
+            switch (random.nextInt(5)) {
+            case 0:
+                delay = random.nextInt(64) * SECOND;
+                break;
+            case 1:
+                delay = (long) (random.nextDouble() * 68 * 60 * SECOND);
+                break;
+            case 2:
+                delay = (long) (random.nextDouble() * 3 * DAY);
+                break;
+            case 3:
+                delay = (long) (random.nextDouble() * 200 * DAY);
+                break;
+            default:
+                delay = 200 * DAY + (long) (random.nextDouble() * 100 * DAY);
+                break;
+            }
+            deadlines[i] = start + delay;
+            wheel.schedule((byte) 1, i, i, deadlines[i]);
+        }
+        assertThat(wheel.size()).isEqualTo(count);
+
+        long now = start;
+        long end = start + 301 * DAY;
+        final long[] window = new long[2];
+        while (now < end) {
+            window[0] = now;
+            now += random.nextInt(20) == 0 ? random.nextInt(10) * 60 * 60 * SECOND : random.nextInt(10 * 60) * SECOND;
+            window[1] = now;
+            wheel.advance(now, (kind, key, ticket) -> {
+                int i = (int) key;
+                assertThat(firedAt[i]).as("fired twice : %d", i).isZero();
+                firedAt[i] = window[1];
+                long due = Math.max(ceilTick(deadlines[i]), start / SECOND + 1);
+                // 이번 advance 구간에 들어 있어야 한다.
+                assertThat(due).isGreaterThan(window[0] / SECOND).isLessThanOrEqualTo(window[1] / SECOND);
+            });
+        }
+
+        for (int i = 0; i < count; i++) {
+            assertThat(firedAt[i]).as("not fired : %d", i).isNotZero();
+        }
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    public void listenerMayReschedule() {
+        long now = 1000000L * SECOND;
+        final TimingWheel wheel = new TimingWheel(now, 16);
+        wheel.schedule((byte) 1, 1L, 1, now + SECOND);
+
+        final List<Long> fired = new ArrayList<Long>();
+        for (int i = 1; i <= 5; i++) {
+            final long t = now + i * SECOND;
+            wheel.advance(t, (kind, key, ticket) -> {
+                fired.add(t);
+                wheel.schedule(kind, key, ticket, t + SECOND);
+            });
+        }
+        assertThat(fired).hasSize(5);
+        assertThat(wheel.size()).isEqualTo(1);
+    }
+
+    private static long ceilTick(long millis) {
+        return (millis + SECOND - 1) / SECOND;
+    }
+}